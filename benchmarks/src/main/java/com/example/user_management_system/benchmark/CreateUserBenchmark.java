@@ -0,0 +1,68 @@
+package com.example.user_management_system.benchmark;
+
+import com.example.user_management_system.entity.User;
+import com.example.user_management_system.exception.ResourceConflictException;
+import com.example.user_management_system.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cost of UserService.createUser against an embedded PostgreSQL: hashing, the Bloom filter check
+ * and the INSERT ... ON CONFLICT round trip, for a new username and for a taken one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CreateUserBenchmark {
+
+    private static final String TAKEN_USERNAME = "taken";
+
+    @Param({"4", "10"})
+    public int strength;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private EmbeddedApplication application;
+    private UserService userService;
+
+    @Setup
+    public void setUp() throws Exception {
+        application = EmbeddedApplication.start(strength);
+        userService = application.getBean(UserService.class);
+        userService.createUser(new User(null, TAKEN_USERNAME, "password123", "USER"));
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        application.close();
+    }
+
+    @Benchmark
+    public User createNewUser() {
+        return userService.createUser(new User(null, "bench" + sequence.incrementAndGet(), "password123", "USER"));
+    }
+
+    @Benchmark
+    public Object createTakenUser() {
+        try {
+            return userService.createUser(new User(null, TAKEN_USERNAME, "password123", "USER"));
+        } catch (ResourceConflictException e) {
+            return e;
+        }
+    }
+}
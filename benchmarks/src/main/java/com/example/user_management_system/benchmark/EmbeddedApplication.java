@@ -0,0 +1,77 @@
+package com.example.user_management_system.benchmark;
+
+import com.example.user_management_system.UserManagementSystemApplication;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The complete application, started against an embedded PostgreSQL server.
+ *
+ * The server is a real PostgreSQL started from the benchmark (it can't run as root), so the
+ * benchmarks exercise the same SQL as production, including the INSERT ... ON CONFLICT of createUser.
+ * The BCrypt strength is fixed instead of calibrated, so results from different machines
+ * and releases stay comparable.
+ */
+final class EmbeddedApplication implements AutoCloseable {
+
+    private final EmbeddedPostgres postgres;
+    private final ConfigurableApplicationContext context;
+
+    private EmbeddedApplication(EmbeddedPostgres postgres, ConfigurableApplicationContext context) {
+        this.postgres = postgres;
+        this.context = context;
+    }
+
+    /**
+     * @param passwordStrength The BCrypt strength the application uses.
+     * @param extraProperties  More properties, as "name=value".
+     * @return The running application.
+     */
+    static EmbeddedApplication start(int passwordStrength, String... extraProperties) throws IOException {
+        EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+        // Command-line arguments take precedence over application.properties.
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres") + "&reWriteBatchedInserts=true",
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=",
+                "--spring.jpa.show-sql=false",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--logging.level.org.hibernate.engine.jdbc.spi.SqlExceptionHelper=ERROR",
+                "--server.port=0",
+                "--app.security.password.strength=" + passwordStrength));
+        for (String property : extraProperties) {
+            args.add("--" + property);
+        }
+        try {
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(UserManagementSystemApplication.class)
+                    .run(args.toArray(String[]::new));
+            return new EmbeddedApplication(postgres, context);
+        } catch (RuntimeException e) {
+            postgres.close();
+            throw e;
+        }
+    }
+
+    ConfigurableApplicationContext context() {
+        return context;
+    }
+
+    <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            context.close();
+        } finally {
+            postgres.close();
+        }
+    }
+}
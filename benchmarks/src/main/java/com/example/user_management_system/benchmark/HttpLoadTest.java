@@ -0,0 +1,142 @@
+package com.example.user_management_system.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Drives a running application over HTTP with a growing number of concurrent clients and prints the
+ * throughput and latency percentiles at each level, to compare how the servlet application (port 8080)
+ * and the reactive one (port 8081) scale with the number of open connections.
+ *
+ * Every client is a virtual thread that sends its requests one after the other on a keep-alive
+ * connection, so the concurrency level is also the number of connections the server holds open.
+ * Each level first runs for a second of warm-up, which is not measured.
+ *
+ * Usage: HttpLoadTest base-url [concurrency,...] [seconds-per-level] [path] [username:password]
+ * for example: HttpLoadTest http://localhost:8081 16,64,256,1024 10 /user intern:password123
+ */
+public final class HttpLoadTest {
+
+    private static final Duration WARMUP = Duration.ofSeconds(1);
+
+    private HttpLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: HttpLoadTest base-url [concurrency,...] [seconds-per-level] [path] [username:password]");
+            System.exit(2);
+        }
+        String baseUrl = args[0];
+        int[] levels = Arrays.stream((args.length > 1 ? args[1] : "16,64,256,1024").split(","))
+                .mapToInt(Integer::parseInt)
+                .toArray();
+        Duration duration = Duration.ofSeconds(args.length > 2 ? Long.parseLong(args[2]) : 10);
+        String path = args.length > 3 ? args[3] : "/public";
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).GET();
+        if (args.length > 4) {
+            builder.header("Authorization",
+                    "Basic " + Base64.getEncoder().encodeToString(args[4].getBytes(StandardCharsets.UTF_8)));
+        }
+        HttpRequest request = builder.build();
+
+        System.out.printf("GET %s%s for %ds per level%n", baseUrl, path, duration.toSeconds());
+        System.out.printf("%12s %12s %10s %10s %10s %10s %8s%n",
+                "Connections", "Requests/s", "p50 ms", "p90 ms", "p99 ms", "max ms", "Errors");
+        for (int concurrency : levels) {
+            Level level = run(request, concurrency, duration);
+            System.out.printf("%12d %12.0f %10.2f %10.2f %10.2f %10.2f %8d%n", concurrency,
+                    level.latencies().length / (double) duration.toMillis() * 1000,
+                    level.percentile(50), level.percentile(90), level.percentile(99), level.percentile(100),
+                    level.errors());
+        }
+    }
+
+    /**
+     * Runs one concurrency level: warm-up, then the measured duration.
+     */
+    private static Level run(HttpRequest request, int concurrency, Duration duration) throws Exception {
+        // One client per level, so connections opened for the previous level are not reused.
+        try (HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+             ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            long measureFrom = System.nanoTime() + WARMUP.toNanos();
+            long end = measureFrom + duration.toNanos();
+            List<Future<Level>> futures = new ArrayList<>(concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                futures.add(clients.submit(() -> drive(client, request, measureFrom, end)));
+            }
+            List<Level> results = new ArrayList<>(concurrency);
+            for (Future<Level> future : futures) {
+                results.add(future.get());
+            }
+            return Level.merge(results);
+        }
+    }
+
+    /**
+     * The loop of one client: send a request, wait for the response, repeat until the end.
+     */
+    private static Level drive(HttpClient client, HttpRequest request, long measureFrom, long end) {
+        long[] latencies = new long[1024];
+        int count = 0;
+        int errors = 0;
+        long now;
+        while ((now = System.nanoTime()) < end) {
+            boolean ok;
+            try {
+                ok = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() < 400;
+            } catch (Exception e) {
+                ok = false;
+            }
+            long done = System.nanoTime();
+            if (now < measureFrom) {
+                continue;
+            }
+            if (!ok) {
+                errors++;
+            } else {
+                if (count == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, count * 2);
+                }
+                latencies[count++] = done - now;
+            }
+        }
+        return new Level(Arrays.copyOf(latencies, count), errors);
+    }
+
+    /**
+     * The latencies, in nanoseconds, of the successful requests and the number of failed ones.
+     */
+    private record Level(long[] latencies, int errors) {
+
+        static Level merge(List<Level> levels) {
+            long[] all = levels.stream().flatMapToLong(level -> Arrays.stream(level.latencies())).sorted().toArray();
+            return new Level(all, levels.stream().mapToInt(Level::errors).sum());
+        }
+
+        /**
+         * @return The given percentile of the (sorted) latencies, in milliseconds.
+         */
+        double percentile(double percent) {
+            if (latencies.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.ceil(percent / 100 * latencies.length) - 1;
+            return latencies[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,374 @@
+package com.example.user_management_system.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Boots the complete application against an embedded PostgreSQL and drives it over HTTP with many
+ * concurrent clients, each sending a random mix of requests, then reports the throughput and the
+ * latency percentiles of every kind of request and writes them to a JSON report file.
+ * While the clients run, it also samples the connection pool: how long borrowing a connection took,
+ * and how many threads were waiting for one in Hikari or, in the virtual profile, for a connection permit.
+ *
+ * Everything runs offline in one process; embedded PostgreSQL refuses to run as root.
+ * Every client is a virtual thread that sends one request at a time. The first seconds are a
+ * warm-up and are not measured. A response with an unexpected status counts as an error.
+ *
+ * Usage: LoadTest [name=value ...], with these settings and their defaults:
+ * <ul>
+ *     <li>clients=64: the number of concurrent clients</li>
+ *     <li>duration=30: the measured seconds</li>
+ *     <li>warmup=10: the seconds run before measuring</li>
+ *     <li>mix=user:40,admin:10,public:10,create:20,duplicate:10,denied:10: the relative weight of each
+ *     scenario; scenarios left out are not run</li>
+ *     <li>strength=10: the BCrypt strength of the application</li>
+ *     <li>profiles=: the Spring profiles to run the application with, for example "virtual"</li>
+ *     <li>report=target/load-test-report.json: where the report is written</li>
+ * </ul>
+ */
+public final class LoadTest {
+
+    private static final String INTERN = basic("intern", "password123");
+    private static final String ADMIN = basic("admin", "admin123");
+    private static final String TAKEN_USERNAME = "loadtest-taken";
+
+    /**
+     * A kind of request, with the status it must be answered with.
+     */
+    enum Scenario {
+        /** GET /user with a USER's credentials. */
+        USER(200),
+        /** GET /admin with an ADMIN's credentials. */
+        ADMIN(200),
+        /** GET /public without credentials. */
+        PUBLIC(200),
+        /** POST /users of a new user. */
+        CREATE(201),
+        /** POST /users of a taken username. */
+        DUPLICATE(409),
+        /** GET /admin with a USER's credentials. */
+        DENIED(403);
+
+        final int expectedStatus;
+
+        Scenario(int expectedStatus) {
+            this.expectedStatus = expectedStatus;
+        }
+    }
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> settings = new LinkedHashMap<>(Map.of(
+                "clients", "64",
+                "duration", "30",
+                "warmup", "10",
+                "mix", "user:40,admin:10,public:10,create:20,duplicate:10,denied:10",
+                "strength", "10",
+                "profiles", "",
+                "report", "target/load-test-report.json"));
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (equals < 0 || !settings.containsKey(arg.substring(0, equals))) {
+                System.err.println("Unknown setting " + arg + "; known settings are " + settings.keySet());
+                System.exit(2);
+            }
+            settings.put(arg.substring(0, equals), arg.substring(equals + 1));
+        }
+        int clients = Integer.parseInt(settings.get("clients"));
+        Duration duration = Duration.ofSeconds(Long.parseLong(settings.get("duration")));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(settings.get("warmup")));
+        Map<Scenario, Integer> mix = parseMix(settings.get("mix"));
+
+        List<String> properties = new ArrayList<>(List.of("app.audit.directory=" + Files.createTempDirectory("audit")));
+        if (!settings.get("profiles").isBlank()) {
+            properties.add("spring.profiles.active=" + settings.get("profiles"));
+        }
+        try (EmbeddedApplication application = EmbeddedApplication.start(Integer.parseInt(settings.get("strength")),
+                properties.toArray(String[]::new))) {
+            String baseUrl = "http://localhost:" + application.context().getEnvironment().getProperty("local.server.port");
+            Run run = new Run(baseUrl, mix, application.getBean(MeterRegistry.class));
+            run.send(Scenario.CREATE, TAKEN_USERNAME);
+
+            System.out.printf("%d clients, %ds warm-up, %ds measured, mix %s, profiles [%s]%n",
+                    clients, warmup.toSeconds(), duration.toSeconds(), settings.get("mix"), settings.get("profiles"));
+            run.drive(clients, warmup, duration);
+            Map<String, Object> report = run.report(duration);
+            report.put("settings", settings);
+            File file = new File(settings.get("report"));
+            file.getAbsoluteFile().getParentFile().mkdirs();
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, report);
+            System.out.println("Report written to " + file.getAbsolutePath());
+        }
+    }
+
+    private static Map<Scenario, Integer> parseMix(String mix) {
+        Map<Scenario, Integer> weights = new EnumMap<>(Scenario.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            weights.put(Scenario.valueOf(parts[0].trim().toUpperCase()), Integer.parseInt(parts[1].trim()));
+        }
+        return weights;
+    }
+
+    private static String basic(String username, String password) {
+        return "Basic " + Base64.getEncoder().encodeToString((username + ":" + password).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * One load test run: the HTTP client, the scenario mix and the measurements.
+     */
+    private static final class Run {
+
+        private final String baseUrl;
+        private final HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        private final Scenario[] scenarios;
+        private final int[] cumulativeWeights;
+        private final Map<Scenario, Histogram> latencies = new EnumMap<>(Scenario.class);
+        private final Map<Scenario, LongAdder> errors = new EnumMap<>(Scenario.class);
+        private final AtomicLong usernames = new AtomicLong();
+        private final MeterRegistry registry;
+        private final PoolSamples pool = new PoolSamples();
+
+        Run(String baseUrl, Map<Scenario, Integer> mix, MeterRegistry registry) {
+            this.baseUrl = baseUrl;
+            this.registry = registry;
+            this.scenarios = mix.keySet().toArray(Scenario[]::new);
+            this.cumulativeWeights = new int[scenarios.length];
+            int total = 0;
+            for (int i = 0; i < scenarios.length; i++) {
+                total += mix.get(scenarios[i]);
+                cumulativeWeights[i] = total;
+                // Latencies in microseconds, up to a minute, with 3 significant digits.
+                latencies.put(scenarios[i], new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3));
+                errors.put(scenarios[i], new LongAdder());
+            }
+        }
+
+        /**
+         * Runs the clients through the warm-up and the measured duration, while this thread samples the pool.
+         */
+        void drive(int clients, Duration warmup, Duration duration) throws InterruptedException {
+            long measureFrom = System.nanoTime() + warmup.toNanos();
+            long end = measureFrom + duration.toNanos();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < clients; i++) {
+                    executor.execute(() -> {
+                        long now;
+                        while ((now = System.nanoTime()) < end) {
+                            Scenario scenario = next();
+                            boolean ok = send(scenario, "load" + usernames.incrementAndGet());
+                            if (now >= measureFrom) {
+                                record(scenario, ok, System.nanoTime() - now);
+                            }
+                        }
+                    });
+                }
+                samplePool(measureFrom, end);
+            }
+        }
+
+        /**
+         * Until the end of the run, reads the pool's gauges every 100 ms, and the connection acquire
+         * timer at the start and the end of the measured duration.
+         */
+        private void samplePool(long measureFrom, long end) throws InterruptedException {
+            Timer acquire = registry.find("hikaricp.connections.acquire").timer();
+            Gauge pending = registry.find("hikaricp.connections.pending").gauge();
+            Gauge permitWaiting = registry.find("app.datasource.connection.permit.waiting").gauge();
+            TimeUnit.NANOSECONDS.sleep(Math.max(0, measureFrom - System.nanoTime()));
+            long acquiredBefore = acquire == null ? 0 : acquire.count();
+            double acquireMillisBefore = acquire == null ? 0 : acquire.totalTime(TimeUnit.MILLISECONDS);
+            while (System.nanoTime() < end) {
+                pool.sample(pending, permitWaiting);
+                TimeUnit.MILLISECONDS.sleep(100);
+            }
+            if (acquire != null) {
+                pool.acquired = acquire.count() - acquiredBefore;
+                pool.acquireMillis = acquire.totalTime(TimeUnit.MILLISECONDS) - acquireMillisBefore;
+                pool.acquireMaxMillis = acquire.max(TimeUnit.MILLISECONDS);
+            }
+        }
+
+        private Scenario next() {
+            int pick = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+            int i = 0;
+            while (pick >= cumulativeWeights[i]) {
+                i++;
+            }
+            return scenarios[i];
+        }
+
+        private void record(Scenario scenario, boolean ok, long nanos) {
+            if (ok) {
+                latencies.get(scenario).recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(nanos),
+                        latencies.get(scenario).getHighestTrackableValue()));
+            } else {
+                errors.get(scenario).increment();
+            }
+        }
+
+        /**
+         * Sends one request of the scenario.
+         *
+         * @param username The username of a created user; only used by CREATE.
+         * @return Whether it was answered with the expected status.
+         */
+        boolean send(Scenario scenario, String username) {
+            HttpRequest request = switch (scenario) {
+                case USER -> get("/user", INTERN);
+                case ADMIN -> get("/admin", ADMIN);
+                case PUBLIC -> get("/public", null);
+                case DENIED -> get("/admin", INTERN);
+                case CREATE -> create(username);
+                case DUPLICATE -> create(TAKEN_USERNAME);
+            };
+            try {
+                return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode()
+                        == scenario.expectedStatus;
+            } catch (Exception e) {
+                return false;
+            }
+        }
+
+        private HttpRequest get(String path, String authorization) {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).GET();
+            if (authorization != null) {
+                builder.header("Authorization", authorization);
+            }
+            return builder.build();
+        }
+
+        private HttpRequest create(String username) {
+            String body = "{\"username\":\"" + username + "\",\"password\":\"password123\",\"role\":\"USER\"}";
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/users"))
+                    .header("Authorization", ADMIN)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+        }
+
+        /**
+         * Prints a table of the results and returns them for the report file.
+         */
+        Map<String, Object> report(Duration duration) {
+            double seconds = duration.toMillis() / 1000.0;
+            System.out.printf("%-10s %10s %8s %12s %10s %10s %10s %10s%n",
+                    "Scenario", "Requests", "Errors", "Requests/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+            List<Map<String, Object>> results = new ArrayList<>();
+            long totalRequests = 0;
+            for (Scenario scenario : scenarios) {
+                Histogram histogram = latencies.get(scenario);
+                long requests = histogram.getTotalCount();
+                long failed = errors.get(scenario).sum();
+                totalRequests += requests;
+                Map<String, Object> result = new LinkedHashMap<>();
+                result.put("scenario", scenario.name().toLowerCase());
+                result.put("requests", requests);
+                result.put("errors", failed);
+                result.put("throughput", requests / seconds);
+                result.put("p50Millis", percentile(histogram, 50));
+                result.put("p99Millis", percentile(histogram, 99));
+                result.put("p999Millis", percentile(histogram, 99.9));
+                result.put("maxMillis", histogram.getMaxValue() / 1000.0);
+                results.add(result);
+                System.out.printf("%-10s %10d %8d %12.1f %10.2f %10.2f %10.2f %10.2f%n", result.get("scenario"),
+                        requests, failed, result.get("throughput"), result.get("p50Millis"), result.get("p99Millis"),
+                        result.get("p999Millis"), result.get("maxMillis"));
+            }
+            System.out.printf("%-10s %10d %8s %12.1f%n", "total", totalRequests, "", totalRequests / seconds);
+            System.out.printf("Connection acquire: mean %.2f ms, max %.2f ms; waiting threads: Hikari mean %.1f max %d,"
+                            + " permits mean %.1f max %d%n", pool.acquireMeanMillis(), pool.acquireMaxMillis,
+                    pool.pendingMean(), pool.pendingMax, pool.permitWaitingMean(), pool.permitWaitingMax);
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("timestamp", Instant.now().toString());
+            report.put("javaVersion", System.getProperty("java.version"));
+            report.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+            report.put("throughput", totalRequests / seconds);
+            report.put("scenarios", results);
+            Map<String, Object> poolReport = new LinkedHashMap<>();
+            poolReport.put("acquireMeanMillis", pool.acquireMeanMillis());
+            poolReport.put("acquireMaxMillis", pool.acquireMaxMillis);
+            poolReport.put("pendingMean", pool.pendingMean());
+            poolReport.put("pendingMax", pool.pendingMax);
+            poolReport.put("permitWaitingMean", pool.permitWaitingMean());
+            poolReport.put("permitWaitingMax", pool.permitWaitingMax);
+            report.put("pool", poolReport);
+            return report;
+        }
+
+        private static double percentile(Histogram histogram, double percentile) {
+            return histogram.getValueAtPercentile(percentile) / 1000.0;
+        }
+    }
+
+    /**
+     * What the pool sampling measured. The Hikari acquire timer doesn't include the wait for a
+     * connection permit, which comes before it; the number of threads waiting for one shows that wait.
+     */
+    private static final class PoolSamples {
+
+        long acquired;
+        double acquireMillis;
+        double acquireMaxMillis;
+        private int samples;
+        private long pendingSum;
+        int pendingMax;
+        private long permitWaitingSum;
+        int permitWaitingMax;
+
+        void sample(Gauge pending, Gauge permitWaiting) {
+            int pendingNow = pending == null ? 0 : (int) pending.value();
+            int permitWaitingNow = permitWaiting == null ? 0 : (int) permitWaiting.value();
+            samples++;
+            pendingSum += pendingNow;
+            pendingMax = Math.max(pendingMax, pendingNow);
+            permitWaitingSum += permitWaitingNow;
+            permitWaitingMax = Math.max(permitWaitingMax, permitWaitingNow);
+        }
+
+        double acquireMeanMillis() {
+            return acquired == 0 ? 0 : acquireMillis / acquired;
+        }
+
+        double pendingMean() {
+            return samples == 0 ? 0 : (double) pendingSum / samples;
+        }
+
+        double permitWaitingMean() {
+            return samples == 0 ? 0 : (double) permitWaitingSum / samples;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.user_management_system.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.web.context.WebApplicationContext;
+
+import jakarta.servlet.ServletContext;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the full SecurityFilterChain for each endpoint, from the first filter to the controller
+ * (which is left out: the request ends in an empty FilterChain).
+ *
+ * Requests are mock requests handed straight to the FilterChainProxy, so no network or Tomcat time
+ * is included. After the first request, HTTP Basic checks are answered by the authentication cache,
+ * as they are in production.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SecurityFilterChainBenchmark {
+
+    /**
+     * The requests that are measured: the method, path and user of each, and the status it should get.
+     */
+    public enum Endpoint {
+        PUBLIC_ANONYMOUS("GET", "/public", null, 200),
+        USER_AS_USER("GET", "/user", "intern:password123", 200),
+        USER_ANONYMOUS("GET", "/user", null, 401),
+        ADMIN_AS_ADMIN("GET", "/admin", "admin:admin123", 200),
+        ADMIN_AS_USER("GET", "/admin", "intern:password123", 403),
+        CREATE_USER_AS_ADMIN("POST", "/users", "admin:admin123", 200),
+        EXPORT_AS_ADMIN("GET", "/users/export", "admin:admin123", 200),
+        WRONG_PASSWORD("GET", "/user", "intern:wrong-password", 401),
+        HEALTH_ANONYMOUS("GET", "/actuator/health", null, 200);
+
+        final String method;
+        final String path;
+        final String authorization;
+        final int expectedStatus;
+
+        Endpoint(String method, String path, String credentials, int expectedStatus) {
+            this.method = method;
+            this.path = path;
+            this.authorization = credentials == null ? null
+                    : "Basic " + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+            this.expectedStatus = expectedStatus;
+        }
+    }
+
+    @Param
+    public Endpoint endpoint;
+
+    private EmbeddedApplication application;
+    private FilterChainProxy filterChainProxy;
+    private ServletContext servletContext;
+
+    @Setup
+    public void setUp() throws Exception {
+        application = EmbeddedApplication.start(10);
+        filterChainProxy = application.getBean(FilterChainProxy.class);
+        servletContext = ((WebApplicationContext) application.context()).getServletContext();
+
+        int status = filter().getStatus();
+        if (status != endpoint.expectedStatus) {
+            throw new IllegalStateException(endpoint + " returned " + status + ", expected " + endpoint.expectedStatus);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        application.close();
+    }
+
+    @Benchmark
+    public MockHttpServletResponse filterChain() throws Exception {
+        return filter();
+    }
+
+    private MockHttpServletResponse filter() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(servletContext, endpoint.method, endpoint.path);
+        if (endpoint.authorization != null) {
+            request.addHeader("Authorization", endpoint.authorization);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filterChainProxy.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.user_management_system.benchmark;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time from launching the packaged application to its first successful /actuator/health response,
+ * against an embedded PostgreSQL: the plain jar with the default configuration, and the same jar with
+ * the fast-startup profile, its AOT-generated bean definitions and its CDS archive.
+ *
+ * Needs the jar built by "mvn -Pfast-startup package", unpacked in target/fast-startup
+ * (or the directory in the startup.app.dir system property). Each measurement is one start.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+public class StartupBenchmark {
+
+    private static final String JAR = "user-management-system-0.0.1-SNAPSHOT.jar";
+    private static final Duration TIMEOUT = Duration.ofMinutes(2);
+
+    @Param({"default", "fast-startup"})
+    public String variant;
+
+    private EmbeddedPostgres postgres;
+    private Path appDirectory;
+    private Path auditDirectory;
+    private HttpClient client;
+    private Process process;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        appDirectory = Path.of(System.getProperty("startup.app.dir", "../target/fast-startup")).toAbsolutePath();
+        if (!Files.exists(appDirectory.resolve(JAR)) || !Files.exists(appDirectory.resolve("application.jsa"))) {
+            throw new IllegalStateException("No fast-startup build in " + appDirectory
+                    + "; run \"mvn -Pfast-startup package\" in the application first");
+        }
+        postgres = EmbeddedPostgres.builder().start();
+        // The fast-startup profile validates the schema instead of creating it, as in production.
+        try (Connection connection = postgres.getPostgresDatabase().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE SEQUENCE users_seq START WITH 1 INCREMENT BY 50");
+            statement.execute("CREATE TABLE users (id BIGINT NOT NULL PRIMARY KEY, "
+                    + "username VARCHAR(255) NOT NULL CONSTRAINT users_username_key UNIQUE, "
+                    + "password VARCHAR(255) NOT NULL, role VARCHAR(255) NOT NULL)");
+        }
+        auditDirectory = Files.createTempDirectory("audit");
+        client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        client.close();
+        postgres.close();
+    }
+
+    @TearDown(Level.Invocation)
+    public void stopApplication() throws InterruptedException {
+        if (process != null) {
+            process.destroy();
+            process.waitFor(30, TimeUnit.SECONDS);
+            process = null;
+        }
+    }
+
+    @Benchmark
+    public int startUntilHealthy() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        if (variant.equals("fast-startup")) {
+            command.addAll(List.of("-XX:SharedArchiveFile=application.jsa", "-Xlog:cds=error",
+                    "-Dspring.aot.enabled=true", "-Dspring.profiles.active=fast-startup"));
+        }
+        command.addAll(List.of("-jar", JAR,
+                "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=",
+                "--app.audit.directory=" + auditDirectory,
+                "--logging.level.root=WARN",
+                "--server.port=" + port));
+        process = new ProcessBuilder(command)
+                .directory(appDirectory.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+
+        HttpRequest health = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/health")).build();
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("The application exited with code " + process.exitValue());
+            }
+            try {
+                int status = client.send(health, HttpResponse.BodyHandlers.discarding()).statusCode();
+                if (status == 200) {
+                    return status;
+                }
+            } catch (IOException e) {
+                // Not listening yet.
+            }
+            Thread.sleep(10);
+        }
+        throw new IllegalStateException("The application wasn't healthy after " + TIMEOUT);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.user_management_system.benchmark;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts a command several times, times each run from launch to exit and fails when the median
+ * time is above a limit, so a build can catch a startup regression.
+ *
+ * The fast-startup build profile of the application runs it as a single source file, without
+ * compiling this module, so it uses nothing but the JDK. The command is typically the application
+ * started with spring.context.exit=onRefresh, which exits once the context is refreshed and so
+ * needs no database. Its output is discarded; a run that exits with another code than 0 fails the check.
+ *
+ * Usage: StartupTimeCheck max-millis runs command [argument ...]
+ * for example: StartupTimeCheck 5000 3 java -Dspring.context.exit=onRefresh -jar app.jar
+ */
+public final class StartupTimeCheck {
+
+    private StartupTimeCheck() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 3) {
+            System.err.println("Usage: StartupTimeCheck max-millis runs command [argument ...]");
+            System.exit(2);
+        }
+        long maxMillis = Long.parseLong(args[0]);
+        int runs = Integer.parseInt(args[1]);
+        List<String> command = List.of(args).subList(2, args.length);
+
+        long[] millis = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            long start = System.nanoTime();
+            Process process = new ProcessBuilder(command)
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            int exitCode = process.waitFor();
+            millis[i] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (exitCode != 0) {
+                System.err.printf("Run %d exited with code %d%n", i + 1, exitCode);
+                System.exit(1);
+            }
+            System.out.printf("Run %d: %d ms%n", i + 1, millis[i]);
+        }
+        Arrays.sort(millis);
+        long median = millis[runs / 2];
+        if (median > maxMillis) {
+            System.err.printf("Startup took %d ms (median of %d), more than the limit of %d ms%n", median, runs, maxMillis);
+            System.exit(1);
+        }
+        System.out.printf("Startup took %d ms (median of %d), within the limit of %d ms%n", median, runs, maxMillis);
+    }
+}
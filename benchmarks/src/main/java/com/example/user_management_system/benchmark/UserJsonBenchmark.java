@@ -0,0 +1,51 @@
+package com.example.user_management_system.benchmark;
+
+import com.example.user_management_system.entity.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning a User into JSON and back, with an ObjectMapper configured like Spring Boot's.
+ * The password is write-only, so it is only in the JSON that is read, as in a POST /users body.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class UserJsonBenchmark {
+
+    private ObjectMapper objectMapper;
+    private User user;
+    private String json;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        user = new User(42L, "testuser", "$2a$10$abcdefghijklmnopqrstuuNCr0XTm2yjGSTxpIj2Y/2R5xQ6nh8Wy", "USER");
+        json = "{\"username\":\"testuser\",\"password\":\"password123\",\"role\":\"USER\"}";
+    }
+
+    @Benchmark
+    public String serialize() throws Exception {
+        return objectMapper.writeValueAsString(user);
+    }
+
+    @Benchmark
+    public User deserialize() throws Exception {
+        return objectMapper.readValue(json, User.class);
+    }
+}
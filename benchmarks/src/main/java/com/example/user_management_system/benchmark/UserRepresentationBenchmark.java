@@ -0,0 +1,86 @@
+package com.example.user_management_system.benchmark;
+
+import com.example.user_management_system.dto.UserView;
+import com.example.user_management_system.entity.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.support.StaticMessageSource;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.mediatype.MessageResolver;
+import org.springframework.hateoas.mediatype.hal.CurieProvider;
+import org.springframework.hateoas.mediatype.hal.Jackson2HalModule;
+import org.springframework.hateoas.server.core.EvoInflectorLinkRelationProvider;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of writing one user into a response body, in the three shapes the API has used:
+ * <ul>
+ *     <li>hal: the User entity as a Spring Data REST HAL resource, with its "self" and "user" links
+ *     built per response, like GET /users/{id} of the exported repository;</li>
+ *     <li>entity: the User entity as plain JSON, like POST /users used to return (without the hash,
+ *     now that the password is write-only);</li>
+ *     <li>view: the UserView record that UserController returns now.</li>
+ * </ul>
+ * The payload size of each is printed at setup; run with -prof gc to also see the bytes allocated per response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class UserRepresentationBenchmark {
+
+    private static final String BASE_URI = "http://localhost:8080";
+
+    private ObjectMapper objectMapper;
+    private ObjectMapper halObjectMapper;
+    private User user;
+    private UserView view;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        halObjectMapper = Jackson2ObjectMapperBuilder.json().build();
+        halObjectMapper.registerModule(new Jackson2HalModule());
+        halObjectMapper.setHandlerInstantiator(new Jackson2HalModule.HalHandlerInstantiator(
+                new EvoInflectorLinkRelationProvider(), CurieProvider.NONE,
+                MessageResolver.of(new StaticMessageSource())));
+        user = new User(42L, "testuser", "$2a$10$abcdefghijklmnopqrstuuNCr0XTm2yjGSTxpIj2Y/2R5xQ6nh8Wy", "USER");
+        view = new UserView(user.getId(), user.getUsername(), user.getRole());
+
+        System.out.printf("%nPayload bytes: hal=%d, entity=%d, view=%d%n",
+                hal().length, entity().length, view().length);
+    }
+
+    @Benchmark
+    public byte[] hal() throws Exception {
+        String self = UriComponentsBuilder.fromUriString(BASE_URI).path("/users/{id}")
+                .buildAndExpand(user.getId()).toUriString();
+        EntityModel<User> model = EntityModel.of(user, Link.of(self), Link.of(self, "user"));
+        return halObjectMapper.writeValueAsBytes(model);
+    }
+
+    @Benchmark
+    public byte[] entity() throws Exception {
+        return objectMapper.writeValueAsBytes(user);
+    }
+
+    @Benchmark
+    public byte[] view() throws Exception {
+        return objectMapper.writeValueAsBytes(view);
+    }
+}
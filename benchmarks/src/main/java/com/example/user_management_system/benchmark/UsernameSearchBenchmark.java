@@ -0,0 +1,108 @@
+package com.example.user_management_system.benchmark;
+
+import com.example.user_management_system.dto.UserView;
+import com.example.user_management_system.repository.UserRepository;
+import com.example.user_management_system.service.UsernameSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Limit;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of one page (20 users) of a username search on the UsernameSearchIndex, filled with a
+ * million generated users, compared with scanning every username the way LIKE '%x%' does.
+ *
+ * The queries are a prefix with many matches, a substring with a few matches and a substring with
+ * no match at all.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class UsernameSearchBenchmark {
+
+    private static final String[] NAMES = {"alice", "bob", "carol", "dave", "erin", "frank", "grace", "heidi",
+            "ivan", "judy", "mallory", "niaj", "olivia", "peggy", "rupert", "sybil", "trent", "victor", "walter"};
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"1000000"})
+    private int users;
+
+    private List<UserView> allUsers;
+    private UsernameSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        allUsers = new ArrayList<>(users);
+        for (int i = 1; i <= users; i++) {
+            String name = NAMES[random.nextInt(NAMES.length)] + (random.nextBoolean() ? "_" : "") + random.nextInt(1_000_000);
+            allUsers.add(new UserView((long) i, name, "USER"));
+        }
+        index = new UsernameSearchIndex(repositoryOf(allUsers), true, 4096);
+        index.warmUp();
+    }
+
+    /**
+     * A UserRepository that only answers findViewsAfter, from the given list ordered by id.
+     */
+    private static UserRepository repositoryOf(List<UserView> users) {
+        return (UserRepository) Proxy.newProxyInstance(UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("findViewsAfter")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    int from = (int) (long) (Long) args[0];
+                    int to = Math.min(users.size(), from + ((Limit) args[1]).max());
+                    return from >= to ? List.of() : users.subList(from, to);
+                });
+    }
+
+    @TearDown
+    public void tearDown() {
+        index.close();
+    }
+
+    @Benchmark
+    public List<UserView> prefixManyMatches() {
+        return index.search("ali", 0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<UserView> substringFewMatches() {
+        return index.search("ice_4242", 0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<UserView> substringNoMatch() {
+        return index.search("zzz", 0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<UserView> scanFewMatches() {
+        List<UserView> matches = new ArrayList<>();
+        for (UserView user : allUsers) {
+            if (user.username().toLowerCase().contains("ice_4242") && matches.size() < PAGE_SIZE) {
+                matches.add(user);
+            }
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.user_management_system.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * The user API on a non-blocking stack: WebFlux on Netty, R2DBC and reactive Spring Security.
+ *
+ * It serves /public, /user, /admin and POST /users with the same rules, validation and error
+ * bodies as the servlet application, against the same "users" table.
+ */
+@SpringBootApplication
+public class ReactiveUserManagementSystemApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(ReactiveUserManagementSystemApplication.class, args);
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.user_management_system.reactive.config;
+
+import com.example.user_management_system.reactive.exception.CustomAccessDeniedHandler;
+import com.example.user_management_system.reactive.exception.CustomAuthenticationEntryPoint;
+import com.example.user_management_system.reactive.repository.UserRepository;
+import com.example.user_management_system.reactive.security.DatabaseUserDetailsService;
+import com.example.user_management_system.reactive.security.HashingOverloadWebFilter;
+import com.example.user_management_system.reactive.service.PasswordHashingService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UserDetailsRepositoryReactiveAuthenticationManager;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.userdetails.MapReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Security configuration of the reactive application.
+ *
+ * The rules, users and error responses are the same as in the servlet application's SecurityConfig;
+ * only the plumbing is reactive. Password checks run on the PasswordHashingService scheduler,
+ * never on the event loop.
+ */
+@Configuration
+@EnableWebFluxSecurity
+public class SecurityConfig {
+
+    private final CustomAccessDeniedHandler customAccessDeniedHandler;
+    private final CustomAuthenticationEntryPoint customAuthenticationEntryPoint;
+
+    @Autowired
+    public SecurityConfig(CustomAccessDeniedHandler customAccessDeniedHandler,
+                          CustomAuthenticationEntryPoint customAuthenticationEntryPoint) {
+        this.customAccessDeniedHandler = customAccessDeniedHandler;
+        this.customAuthenticationEntryPoint = customAuthenticationEntryPoint;
+    }
+
+    /**
+     * Defines the PasswordEncoder: BCrypt with a fixed strength, stored as "{bcrypt}..." through a
+     * DelegatingPasswordEncoder, so hashes are interchangeable with the servlet application's.
+     *
+     * @param strength The BCrypt strength.
+     * @return A PasswordEncoder instance.
+     */
+    @Bean
+    public PasswordEncoder passwordEncoder(@Value("${app.security.password.strength:10}") int strength) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(strength);
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        // Hashes stored before the DelegatingPasswordEncoder was introduced have no "{bcrypt}" prefix.
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+        return delegating;
+    }
+
+    /**
+     * Defines the store that users are loaded from during authentication: the "users" table,
+     * then the two predefined users kept in memory.
+     *
+     * @param userRepository  The repository for user data access.
+     * @param passwordEncoder The PasswordEncoder to use for encoding passwords.
+     * @return A ReactiveUserDetailsService backed by the database and the predefined users.
+     */
+    @Bean
+    public DatabaseUserDetailsService userDetailsService(UserRepository userRepository,
+                                                         PasswordEncoder passwordEncoder) {
+        UserDetails internUser = User.builder()
+                .username("intern")
+                .password(passwordEncoder.encode("password123"))
+                .roles("USER")
+                .build();
+        UserDetails adminUser = User.builder()
+                .username("admin")
+                .password(passwordEncoder.encode("admin123"))
+                .roles("ADMIN")
+                .build();
+        return new DatabaseUserDetailsService(userRepository, new MapReactiveUserDetailsService(internUser, adminUser));
+    }
+
+    /**
+     * Defines the ReactiveAuthenticationManager used by HTTP Basic. The password check runs on the
+     * hashing scheduler; when that scheduler is saturated, the login fails with a 503 instead of waiting.
+     *
+     * @param userDetailsService The store to load users from.
+     * @param passwordEncoder    The encoder used to verify passwords.
+     * @param hashingService     The scheduler that runs the hashing.
+     * @return The ReactiveAuthenticationManager.
+     */
+    @Bean
+    public ReactiveAuthenticationManager authenticationManager(DatabaseUserDetailsService userDetailsService,
+                                                               PasswordEncoder passwordEncoder,
+                                                               PasswordHashingService hashingService) {
+        UserDetailsRepositoryReactiveAuthenticationManager manager =
+                new UserDetailsRepositoryReactiveAuthenticationManager(userDetailsService);
+        manager.setPasswordEncoder(passwordEncoder);
+        manager.setScheduler(hashingService.scheduler());
+        return authentication -> manager.authenticate(authentication)
+                .onErrorMap(RejectedExecutionException.class, e -> hashingService.overloaded());
+    }
+
+    /**
+     * Configures the security filter chain that applies to all HTTP requests.
+     *
+     * @param http                  The ServerHttpSecurity object to configure.
+     * @param authenticationManager Checks HTTP Basic credentials.
+     * @param objectMapper          Writes the JSON body of 503 responses.
+     * @return The configured SecurityWebFilterChain.
+     */
+    @Bean
+    public SecurityWebFilterChain filterChain(ServerHttpSecurity http,
+                                              ReactiveAuthenticationManager authenticationManager,
+                                              ObjectMapper objectMapper) {
+        return http
+                // Disable CSRF protection for this simple REST API.
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .authorizeExchange(exchanges -> exchanges
+                        // Allow unauthenticated access to the /public endpoint and the health check.
+                        .pathMatchers("/public", "/actuator/health").permitAll()
+                        // Other actuator endpoints (metrics) are for admins only.
+                        .pathMatchers("/actuator/**").hasRole("ADMIN")
+                        // Allow access to /user endpoint for users with "USER" or "ADMIN" roles.
+                        .pathMatchers("/user").hasAnyRole("USER", "ADMIN")
+                        // Allow access to /admin, /users and their sub-paths only for users with "ADMIN" role.
+                        .pathMatchers("/admin", "/admin/**", "/users", "/users/**").hasRole("ADMIN")
+                        // All other requests must be authenticated.
+                        .anyExchange().authenticated()
+                )
+                // Answer with 503 instead of an error when the hashing scheduler is saturated during login.
+                .addFilterBefore(new HashingOverloadWebFilter(objectMapper), SecurityWebFiltersOrder.HTTP_BASIC)
+                .httpBasic(basic -> basic
+                        .authenticationManager(authenticationManager)
+                        .authenticationEntryPoint(customAuthenticationEntryPoint))
+                .exceptionHandling(e -> e
+                        .accessDeniedHandler(customAccessDeniedHandler)
+                        .authenticationEntryPoint(customAuthenticationEntryPoint))
+                .build();
+    }
+}
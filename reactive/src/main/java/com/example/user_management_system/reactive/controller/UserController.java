@@ -0,0 +1,77 @@
+package com.example.user_management_system.reactive.controller;
+
+import com.example.user_management_system.reactive.dto.UserView;
+import com.example.user_management_system.reactive.entity.User;
+import com.example.user_management_system.reactive.service.UserService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * REST Controller for the user API of the reactive application.
+ *
+ * The endpoints and their responses are the same as in the servlet application's UserController,
+ * but every handler returns at once and the work runs when WebFlux subscribes to the result.
+ */
+@RestController
+public class UserController {
+
+    private final UserService userService;
+
+    @Autowired
+    public UserController(UserService userService) {
+        this.userService = userService;
+    }
+
+    /**
+     * Accessible to everyone without authentication.
+     *
+     * @return A simple string message.
+     */
+    @GetMapping("/public")
+    public String publicEndpoint() {
+        return "This is a public endpoint";
+    }
+
+    /**
+     * Accessible only by authenticated users with "USER" or "ADMIN" roles.
+     *
+     * @return A simple string message.
+     */
+    @GetMapping("/user")
+    public String userEndpoint() {
+        return "This is a user endpoint";
+    }
+
+    /**
+     * Accessible only by authenticated users with the "ADMIN" role.
+     *
+     * @return A simple string message.
+     */
+    @GetMapping("/admin")
+    public String adminEndpoint() {
+        return "This is an admin endpoint";
+    }
+
+    /**
+     * Creates a new user. Accessible only by users with the "ADMIN" role.
+     * If validation fails, WebFlux signals a WebExchangeBindException.
+     * The response is the new user's view, without the password hash.
+     *
+     * @param newUser The User object to be created.
+     * @return A Mono of a ResponseEntity containing the created user and HTTP status 201 (Created).
+     */
+    @PostMapping("/users")
+    public Mono<ResponseEntity<UserView>> createUser(@Valid @RequestBody User newUser) {
+        return userService.createUser(newUser)
+                .map(savedUser -> new ResponseEntity<>(
+                        new UserView(savedUser.getId(), savedUser.getUsername(), savedUser.getRole()),
+                        HttpStatus.CREATED));
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.user_management_system.reactive.dto;
+
+/**
+ * A read-only view of a user without the password hash, as returned by POST /users.
+ *
+ * @param id       The primary key of the user.
+ * @param username The username of the user.
+ * @param role     The role of the user.
+ */
+public record UserView(Long id, String username, String role) {
+}
@@ -0,0 +1,42 @@
+package com.example.user_management_system.reactive.entity;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * A row of the "users" table, mapped for Spring Data R2DBC.
+ *
+ * The validation rules and messages are the same as those of the servlet application's User entity,
+ * so POST /users rejects the same requests with the same errors.
+ */
+@Table("users")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class User {
+
+    /**
+     * The primary key, taken from the "users_seq" sequence on insert (see UserRepository.insertIfAbsent).
+     */
+    @Id
+    private Long id;
+
+    @NotBlank(message = "Username cannot be blank")
+    @Size(min = 3, max = 20, message = "Username must be between 3 and 20 characters")
+    private String username;
+
+    /**
+     * The password; plain text in a request, encoded once stored.
+     */
+    @NotBlank(message = "Password cannot be blank")
+    @Size(min = 4, message = "Password must be at least 4 characters long")
+    private String password;
+
+    @NotBlank(message = "Role cannot be blank")
+    private String role;
+}
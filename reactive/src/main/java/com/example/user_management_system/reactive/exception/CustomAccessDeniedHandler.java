@@ -0,0 +1,46 @@
+package com.example.user_management_system.reactive.exception;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.web.server.authorization.ServerAccessDeniedHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Answers authenticated requests without the required role with 403 Forbidden and the same
+ * JSON body as the servlet application. Every 403 is counted in "security.rejected".
+ */
+@Component
+public class CustomAccessDeniedHandler implements ServerAccessDeniedHandler {
+
+    private final JsonErrorBody body;
+    private final Counter rejectedCounter;
+
+    @Autowired
+    public CustomAccessDeniedHandler(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        Map<String, Object> constantFields = new LinkedHashMap<>();
+        constantFields.put("status", HttpStatus.FORBIDDEN.value());
+        constantFields.put("error", "Access Denied");
+        constantFields.put("message", "You do not have the required permissions to access this resource.");
+        this.body = JsonErrorBody.withVariableField(objectMapper, constantFields, "path");
+        this.rejectedCounter = Counter.builder("security.rejected")
+                .description("Requests rejected by the security filter chain")
+                .tag("status", "403")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> handle(ServerWebExchange exchange, AccessDeniedException denied) {
+        rejectedCounter.increment();
+        String path = exchange.getRequest().getPath().pathWithinApplication().value();
+        return JsonErrorBody.write(exchange.getResponse(), HttpStatus.FORBIDDEN, body.render(path));
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.user_management_system.reactive.exception;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.server.ServerAuthenticationEntryPoint;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Answers requests without valid credentials with 401 Unauthorized, an HTTP Basic challenge and
+ * the same JSON body as the servlet application. Every 401 is counted in "security.rejected".
+ */
+@Component
+public class CustomAuthenticationEntryPoint implements ServerAuthenticationEntryPoint {
+
+    // The realm Spring Security uses for HTTP Basic by default.
+    private static final String CHALLENGE = "Basic realm=\"Realm\"";
+
+    private final JsonErrorBody body;
+    private final Counter rejectedCounter;
+
+    @Autowired
+    public CustomAuthenticationEntryPoint(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        Map<String, Object> constantFields = new LinkedHashMap<>();
+        constantFields.put("status", HttpStatus.UNAUTHORIZED.value());
+        constantFields.put("error", "Unauthorized");
+        constantFields.put("message", "Full authentication is required to access this resource.");
+        this.body = JsonErrorBody.withVariableField(objectMapper, constantFields, "path");
+        this.rejectedCounter = Counter.builder("security.rejected")
+                .description("Requests rejected by the security filter chain")
+                .tag("status", "401")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> commence(ServerWebExchange exchange, AuthenticationException authException) {
+        rejectedCounter.increment();
+        exchange.getResponse().getHeaders().set(HttpHeaders.WWW_AUTHENTICATE, CHALLENGE);
+        String path = exchange.getRequest().getPath().pathWithinApplication().value();
+        return JsonErrorBody.write(exchange.getResponse(), HttpStatus.UNAUTHORIZED, body.render(path));
+    }
+}
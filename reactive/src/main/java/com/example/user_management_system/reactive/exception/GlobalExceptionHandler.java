@@ -0,0 +1,118 @@
+package com.example.user_management_system.reactive.exception;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turns the exceptions of the controllers into the same JSON error bodies as the servlet
+ * application's GlobalExceptionHandler: {"status":400,"errors":[...]} for validation errors and
+ * {"status":409,"error":"..."} for conflicts, which are also counted in "users.conflicts", and
+ * {"status":503,"error":"..."} with Retry-After when the password hashing scheduler is saturated.
+ *
+ * Bodies are returned as pre-encoded bytes, which WebFlux writes without running them through
+ * the ObjectMapper again.
+ */
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+
+    private final JsonErrorBody validationBody;
+    private final JsonErrorBody conflictBody;
+    private final JsonErrorBody hashingOverloadBody;
+    private final byte[] usernameTakenBody;
+    private final byte[] constraintViolatedBody;
+    private final Counter usernameTakenCounter;
+    private final Counter constraintViolationCounter;
+
+    @Autowired
+    public GlobalExceptionHandler(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.validationBody = JsonErrorBody.withVariableField(objectMapper,
+                Map.of("status", HttpStatus.BAD_REQUEST.value()), "errors");
+        this.conflictBody = JsonErrorBody.withVariableField(objectMapper,
+                Map.of("status", HttpStatus.CONFLICT.value()), "error");
+        this.hashingOverloadBody = JsonErrorBody.withVariableField(objectMapper,
+                Map.of("status", HttpStatus.SERVICE_UNAVAILABLE.value()), "error");
+        this.usernameTakenBody = conflictBody.render("This username is already taken.");
+        this.constraintViolatedBody = conflictBody.render("A database constraint was violated.");
+        this.usernameTakenCounter = Counter.builder("users.conflicts")
+                .description("Requests answered with 409 Conflict")
+                .tag("reason", "username-taken")
+                .register(meterRegistry);
+        this.constraintViolationCounter = Counter.builder("users.conflicts")
+                .description("Requests answered with 409 Conflict")
+                .tag("reason", "constraint-violation")
+                .register(meterRegistry);
+    }
+
+    private static ResponseEntity<byte[]> json(HttpStatus status, byte[] body) {
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /**
+     * Handles the validation errors of @Valid request bodies.
+     *
+     * @param ex The exception thrown.
+     * @return 400 Bad Request with the message of every rejected field.
+     */
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<byte[]> handleValidation(WebExchangeBindException ex) {
+        List<String> errors = ex.getBindingResult()
+                .getFieldErrors()
+                .stream()
+                .map(FieldError::getDefaultMessage)
+                .toList();
+        return json(HttpStatus.BAD_REQUEST, validationBody.render(errors));
+    }
+
+    /**
+     * @param ex The exception thrown.
+     * @return 409 Conflict with the exception's message.
+     */
+    @ExceptionHandler(ResourceConflictException.class)
+    public ResponseEntity<byte[]> handleResourceConflict(ResourceConflictException ex) {
+        usernameTakenCounter.increment();
+        return json(HttpStatus.CONFLICT, conflictBody.render(ex.getMessage()));
+    }
+
+    /**
+     * Handles unique constraint violations reported by the database.
+     *
+     * @param ex The exception thrown by the database.
+     * @return 409 Conflict with a user-friendly message.
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<byte[]> handleDataIntegrityViolation(DataIntegrityViolationException ex) {
+        constraintViolationCounter.increment();
+        String cause = ex.getMostSpecificCause().getMessage();
+        return json(HttpStatus.CONFLICT,
+                cause != null && cause.contains("users_username_key") ? usernameTakenBody : constraintViolatedBody);
+    }
+
+    /**
+     * Handles a saturated password hashing scheduler.
+     * Returns 503 Service Unavailable with a Retry-After header, so clients back off and retry later.
+     *
+     * @param ex The exception thrown.
+     * @return 503 Service Unavailable with the exception's message.
+     */
+    @ExceptionHandler(HashingCapacityExceededException.class)
+    public ResponseEntity<byte[]> handleHashingCapacityExceeded(HashingCapacityExceededException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(hashingOverloadBody.render(ex.getMessage()));
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.user_management_system.reactive.exception;
+
+/**
+ * Signals that the password hashing scheduler has no room for more work.
+ * Answered with 503 Service Unavailable and a Retry-After header by the HashingOverloadWebFilter.
+ */
+public class HashingCapacityExceededException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public HashingCapacityExceededException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.user_management_system.reactive.exception;
+
+/**
+ * Signals that a request conflicts with the current state of a resource, for example a
+ * username that is already taken. Answered with 409 Conflict by GlobalExceptionHandler.
+ */
+public class ResourceConflictException extends RuntimeException {
+
+    public ResourceConflictException(String message) {
+        super(message);
+    }
+}
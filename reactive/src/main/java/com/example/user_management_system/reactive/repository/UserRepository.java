@@ -0,0 +1,36 @@
+package com.example.user_management_system.reactive.repository;
+
+import com.example.user_management_system.reactive.entity.User;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Spring Data R2DBC repository for the User entity, the non-blocking counterpart of the servlet
+ * application's UserRepository. Every method returns at once; the query runs when the result is
+ * subscribed to, without holding a thread while the database answers.
+ */
+@Repository
+public interface UserRepository extends ReactiveCrudRepository<User, Long> {
+
+    /**
+     * @param username The username to look for.
+     * @return The user, or an empty Mono if there is none.
+     */
+    Mono<User> findByUsername(String username);
+
+    /**
+     * Inserts a user unless the username is already taken, in a single statement, like the
+     * servlet application's UserRepository.insertIfAbsent.
+     *
+     * @param username The username of the new user.
+     * @param password The already encoded password.
+     * @param role     The role of the new user.
+     * @return The id of the new user, or an empty Mono if the username was taken.
+     */
+    @Query("INSERT INTO users (id, username, password, role) "
+            + "VALUES (nextval('users_seq'), :username, :password, :role) "
+            + "ON CONFLICT (username) DO NOTHING RETURNING id")
+    Mono<Long> insertIfAbsent(String username, String password, String role);
+}
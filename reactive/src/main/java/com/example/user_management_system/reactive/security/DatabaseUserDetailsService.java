@@ -0,0 +1,32 @@
+package com.example.user_management_system.reactive.security;
+
+import com.example.user_management_system.reactive.repository.UserRepository;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import reactor.core.publisher.Mono;
+
+/**
+ * Looks up the users that log in, first in the database and then among the built-in users,
+ * like the servlet application's DatabaseUserDetailsService.
+ */
+public class DatabaseUserDetailsService implements ReactiveUserDetailsService {
+
+    private final UserRepository userRepository;
+    private final ReactiveUserDetailsService builtInUsers;
+
+    public DatabaseUserDetailsService(UserRepository userRepository, ReactiveUserDetailsService builtInUsers) {
+        this.userRepository = userRepository;
+        this.builtInUsers = builtInUsers;
+    }
+
+    @Override
+    public Mono<UserDetails> findByUsername(String username) {
+        return userRepository.findByUsername(username)
+                .map(user -> User.withUsername(user.getUsername())
+                        .password(user.getPassword())
+                        .roles(user.getRole())
+                        .build())
+                .switchIfEmpty(Mono.defer(() -> builtInUsers.findByUsername(username)));
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.user_management_system.reactive.security;
+
+import com.example.user_management_system.reactive.exception.HashingCapacityExceededException;
+import com.example.user_management_system.reactive.exception.JsonErrorBody;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Turns a saturated password hashing scheduler during authentication into a 503 response.
+ *
+ * When HTTP Basic verifies a password, the hash runs inside the security filter chain,
+ * before any controller is involved, so GlobalExceptionHandler never sees the error.
+ * This filter sits in front of authentication and answers with 503 and Retry-After instead.
+ */
+public class HashingOverloadWebFilter implements WebFilter {
+
+    private final JsonErrorBody overloadBody;
+
+    public HashingOverloadWebFilter(ObjectMapper objectMapper) {
+        this.overloadBody = JsonErrorBody.withVariableField(objectMapper,
+                Map.of("status", HttpStatus.SERVICE_UNAVAILABLE.value()), "error");
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        return chain.filter(exchange)
+                .onErrorResume(HashingCapacityExceededException.class, ex -> {
+                    if (exchange.getResponse().isCommitted()) {
+                        return Mono.error(ex);
+                    }
+                    exchange.getResponse().getHeaders()
+                            .set(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()));
+                    return JsonErrorBody.write(exchange.getResponse(), HttpStatus.SERVICE_UNAVAILABLE,
+                            overloadBody.render(ex.getMessage()));
+                });
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.user_management_system.reactive.service;
+
+import com.example.user_management_system.reactive.exception.HashingCapacityExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Runs password hashing on a dedicated, bounded Reactor scheduler.
+ *
+ * BCrypt is deliberately CPU-heavy. Running it on the Netty event loop would stall every other
+ * connection served by that loop, so all hashing is moved to this scheduler instead. It has a fixed
+ * number of threads, and each thread queues at most queue-capacity tasks; when there is no room,
+ * the hash fails fast with a HashingCapacityExceededException, which becomes a 503 with Retry-After.
+ * Rejections are counted in "password.hashing.rejected".
+ */
+@Service
+public class PasswordHashingService {
+
+    private static final int IDLE_THREAD_TTL_SECONDS = 60;
+
+    private final Scheduler scheduler;
+    private final long retryAfterSeconds;
+    private final Counter rejectedCounter;
+
+    @Autowired
+    public PasswordHashingService(MeterRegistry meterRegistry,
+                                  @Value("${app.hashing.threads:0}") int threads,
+                                  @Value("${app.hashing.queue-capacity:64}") int queueCapacity,
+                                  @Value("${app.hashing.retry-after-seconds:1}") long retryAfterSeconds) {
+        // 0 means one hashing thread per CPU core.
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.scheduler = Schedulers.newBoundedElastic(poolSize, queueCapacity, "password-hash",
+                IDLE_THREAD_TTL_SECONDS, true);
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.rejectedCounter = Counter.builder("password.hashing.rejected")
+                .description("Hashes rejected because the scheduler was saturated")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return The scheduler hashing runs on, for Spring Security's authentication manager.
+     */
+    public Scheduler scheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Runs a hash on the scheduler, failing fast if it is saturated.
+     *
+     * @param task The hashing work.
+     * @return A Mono of the result of the task, emitted on a hashing thread.
+     */
+    public <T> Mono<T> execute(Callable<T> task) {
+        return Mono.fromCallable(task)
+                .subscribeOn(scheduler)
+                .onErrorMap(RejectedExecutionException.class, e -> overloaded());
+    }
+
+    /**
+     * Counts a rejected hash and describes it as the exception answered with 503.
+     *
+     * @return The exception to signal instead of the scheduler's RejectedExecutionException.
+     */
+    public HashingCapacityExceededException overloaded() {
+        rejectedCounter.increment();
+        return new HashingCapacityExceededException(
+                "Too many password hashing requests are in progress. Please try again later.", retryAfterSeconds);
+    }
+
+    @PreDestroy
+    public void close() {
+        scheduler.dispose();
+    }
+}
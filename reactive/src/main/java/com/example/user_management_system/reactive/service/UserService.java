@@ -0,0 +1,56 @@
+package com.example.user_management_system.reactive.service;
+
+import com.example.user_management_system.reactive.entity.User;
+import com.example.user_management_system.reactive.exception.ResourceConflictException;
+import com.example.user_management_system.reactive.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * Creates users without blocking: the database is reached through R2DBC and the password is
+ * hashed on the PasswordHashingService scheduler, so no event loop thread ever waits.
+ */
+@Service
+public class UserService {
+
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService hashingService;
+
+    @Autowired
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder,
+                       PasswordHashingService hashingService) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.hashingService = hashingService;
+    }
+
+    /**
+     * Creates a new user with an encoded password.
+     *
+     * A username that is known to be taken is rejected before the password is hashed; the insert
+     * itself also skips taken usernames, so two concurrent requests for the same name can't both succeed.
+     *
+     * @param newUser The user to create, with a raw password.
+     * @return A Mono of the saved user, or a ResourceConflictException if the username is already taken.
+     */
+    public Mono<User> createUser(User newUser) {
+        String username = newUser.getUsername();
+        return userRepository.findByUsername(username)
+                .flatMap(existing -> Mono.<User>error(usernameTaken(username)))
+                .switchIfEmpty(Mono.defer(() -> hashingService.execute(() -> passwordEncoder.encode(newUser.getPassword()))
+                        .flatMap(encoded -> userRepository.insertIfAbsent(username, encoded, newUser.getRole())
+                                .switchIfEmpty(Mono.error(() -> usernameTaken(username)))
+                                .map(id -> {
+                                    newUser.setId(id);
+                                    newUser.setPassword(encoded);
+                                    return newUser;
+                                }))));
+    }
+
+    private static ResourceConflictException usernameTaken(String username) {
+        return new ResourceConflictException("Username '" + username + "' is already taken.");
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.user_management_system.reactive.controller;
+
+import com.example.user_management_system.reactive.entity.User;
+import com.example.user_management_system.reactive.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.when;
+
+/**
+ * Integration tests for the reactive UserController.
+ *
+ * @SpringBootTest loads the full application context, so the security rules and error handlers
+ * are the ones the application runs with. Only the R2DBC repository is mocked, and the schema
+ * script is skipped, so no database is needed.
+ */
+@SpringBootTest(properties = "spring.sql.init.mode=never")
+@AutoConfigureWebTestClient
+class UserControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private UserRepository userRepository;
+
+    @Test
+    void whenGetPublicEndpoint_thenSucceed() {
+        webTestClient.get().uri("/public")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("This is a public endpoint");
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = "USER")
+    void whenGetUserEndpointAsUser_thenSucceed() {
+        webTestClient.get().uri("/user")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("This is a user endpoint");
+    }
+
+    @Test
+    void whenGetUserEndpointWithBuiltInCredentials_thenSucceed() {
+        when(userRepository.findByUsername("intern")).thenReturn(Mono.empty());
+
+        webTestClient.get().uri("/user")
+                .headers(headers -> headers.setBasicAuth("intern", "password123"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("This is a user endpoint");
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = "USER")
+    void whenGetAdminEndpointAsUser_thenForbiddenWithJsonBody() {
+        webTestClient.get().uri("/admin")
+                .exchange()
+                .expectStatus().isForbidden()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(403)
+                .jsonPath("$.error").isEqualTo("Access Denied")
+                .jsonPath("$.message").isEqualTo("You do not have the required permissions to access this resource.")
+                .jsonPath("$.path").isEqualTo("/admin");
+    }
+
+    @Test
+    void whenGetUserEndpointAnonymously_thenUnauthorizedWithJsonBody() {
+        webTestClient.get().uri("/user")
+                .exchange()
+                .expectStatus().isUnauthorized()
+                .expectHeader().valueEquals(HttpHeaders.WWW_AUTHENTICATE, "Basic realm=\"Realm\"")
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(401)
+                .jsonPath("$.error").isEqualTo("Unauthorized")
+                .jsonPath("$.message").isEqualTo("Full authentication is required to access this resource.")
+                .jsonPath("$.path").isEqualTo("/user");
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void whenCreateUserAsAdmin_thenCreatedWithoutPassword() {
+        when(userRepository.findByUsername("newuser")).thenReturn(Mono.empty());
+        when(userRepository.insertIfAbsent(eq("newuser"), startsWith("{bcrypt}"), eq("USER"))).thenReturn(Mono.just(51L));
+
+        webTestClient.post().uri("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new User(null, "newuser", "password", "USER"))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(51)
+                .jsonPath("$.username").isEqualTo("newuser")
+                .jsonPath("$.role").isEqualTo("USER")
+                .jsonPath("$.password").doesNotExist();
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void whenCreateUserWithInvalidData_thenBadRequestWithErrors() {
+        webTestClient.post().uri("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new User(null, "ab", "", "USER"))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(400)
+                .jsonPath("$.errors.length()").isEqualTo(3);
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void whenCreateUserWithTakenUsername_thenConflict() {
+        when(userRepository.findByUsername("testuser"))
+                .thenReturn(Mono.just(new User(1L, "testuser", "{bcrypt}x", "USER")));
+
+        webTestClient.post().uri("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new User(null, "testuser", "password", "USER"))
+                .exchange()
+                .expectStatus().isEqualTo(409)
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(409)
+                .jsonPath("$.error").isEqualTo("Username 'testuser' is already taken.");
+    }
+}
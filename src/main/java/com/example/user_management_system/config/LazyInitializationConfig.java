@@ -0,0 +1,40 @@
+package com.example.user_management_system.config;
+
+import com.example.user_management_system.event.UserChangeRelay;
+import com.example.user_management_system.service.AuditService;
+import com.example.user_management_system.service.PasswordHashingService;
+import com.example.user_management_system.service.UsernameBloomFilter;
+import com.example.user_management_system.service.UsernameSearchIndex;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Keeps some beans eager when spring.main.lazy-initialization=true (see application-fast-startup.properties).
+ *
+ * Lazy initialization moves the cost of creating a bean from startup to its first use. That is
+ * fine for controllers and rarely used services, but not for:
+ * <ul>
+ *     <li>the DataSource and the EntityManagerFactory, so the schema is validated and a broken
+ *     database fails startup instead of the first request;</li>
+ *     <li>the beans with background threads and metrics (the audit writer, the hashing pool, the
+ *     username filter and index, the cross-node change relay), whose meters should be published
+ *     from the start.</li>
+ * </ul>
+ */
+@Configuration
+public class LazyInitializationConfig {
+
+    /**
+     * @return The filter that excludes the beans above from lazy initialization.
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter eagerBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(DataSource.class, EntityManagerFactory.class,
+                AuditService.class, PasswordHashingService.class, UsernameBloomFilter.class,
+                UsernameSearchIndex.class, UserChangeRelay.class);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.user_management_system.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions to read replicas (app.datasource.replica.enabled=true, see
+ * application-replica.properties).
+ *
+ * The DataSource the application uses is a LazyConnectionDataSourceProxy. It only takes a real
+ * connection when the first statement runs, by which time it knows whether the transaction is
+ * read-only: work in @Transactional(readOnly = true) (the finders of UserRepository, the
+ * Spring Data REST listings, findByUsername) gets a connection from the ReplicaDataSource, and
+ * everything else from the primary pool configured by spring.datasource.*. This only holds if each
+ * transaction takes its own connection, which is why the replica profile turns open-in-view off.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    /**
+     * The connection pool of the primary, configured like Spring Boot's own (spring.datasource.*
+     * and spring.datasource.hikari.*).
+     *
+     * @param properties The spring.datasource.* properties.
+     * @return The primary's connection pool.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * One connection pool per replica URL, with the primary's credentials unless others are set.
+     *
+     * @param primaryDataSource The DataSource to fall back to.
+     * @param properties        The spring.datasource.* properties.
+     * @param urls              The JDBC URLs of the replicas.
+     * @param username          The replicas' username; empty means the primary's.
+     * @param password          The replicas' password; empty means the primary's.
+     * @param poolSize          The maximum number of connections per replica.
+     * @param maxLag            How far behind a replica may be and still be used.
+     * @param checkInterval     The time between two lag checks.
+     * @param meterRegistry     Used to publish pool, lag and fallback metrics.
+     * @return The DataSource of the replicas.
+     */
+    @Bean(destroyMethod = "close")
+    public ReplicaDataSource replicaDataSource(
+            @Qualifier("primaryDataSource") DataSource primaryDataSource,
+            DataSourceProperties properties,
+            @Value("${app.datasource.replica.urls}") List<String> urls,
+            @Value("${app.datasource.replica.username:}") String username,
+            @Value("${app.datasource.replica.password:}") String password,
+            @Value("${app.datasource.replica.pool-size:10}") int poolSize,
+            @Value("${app.datasource.replica.max-lag:5s}") Duration maxLag,
+            @Value("${app.datasource.replica.lag-check-interval:5s}") Duration checkInterval,
+            MeterRegistry meterRegistry) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + (i + 1));
+            replica.setJdbcUrl(urls.get(i).trim());
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setUsername(username.isEmpty() ? properties.determineUsername() : username);
+            replica.setPassword(password.isEmpty() ? properties.determinePassword() : password);
+            replica.setMaximumPoolSize(poolSize);
+            replica.setReadOnly(true);
+            replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.put(replica.getPoolName(), replica);
+        }
+        ReplicaDataSource replicaDataSource = new ReplicaDataSource(primaryDataSource, replicas, maxLag, meterRegistry);
+        replicaDataSource.start(checkInterval);
+        return replicaDataSource;
+    }
+
+    /**
+     * @param primaryDataSource The DataSource for read-write work.
+     * @param replicaDataSource The DataSource for read-only work.
+     * @return The DataSource used by JPA and everything else in the application.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 ReplicaDataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.user_management_system.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A DataSource that hands out connections to read replicas, in turn, and falls back to the primary
+ * when no replica can be used.
+ *
+ * The replication lag of every replica is measured every few seconds. A replica that is further
+ * behind than maxLag, or whose lag can't be measured, is skipped until a later check finds it caught
+ * up again; one that fails to give a connection is skipped until the next check. When every replica
+ * is skipped, connections come from the primary, so reads stay correct at the cost of load on the
+ * primary. Each fallback is counted in the "app.datasource.replica.fallback" counter, and the last
+ * measured lag of each replica is published as "app.datasource.replica.lag" (in seconds).
+ */
+public class ReplicaDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaDataSource.class);
+
+    /**
+     * Seconds since the last replayed transaction, or 0 if the replica has replayed everything it
+     * received (an idle primary sends nothing new), or if it isn't a replica at all.
+     * NULL means the lag is unknown, for example before the first transaction was replayed.
+     */
+    static final String LAG_QUERY = "SELECT CASE"
+            + " WHEN NOT pg_is_in_recovery() THEN 0"
+            + " WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0"
+            + " ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END";
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final double maxLagSeconds;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter fallbackCounter;
+    private ScheduledExecutorService lagChecker;
+
+    /**
+     * A replica, and whether it may currently be used.
+     */
+    private static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean usable;
+        private volatile double lagSeconds = Double.POSITIVE_INFINITY;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+
+    /**
+     * Replicas start out unusable; call {@link #checkLag()} or {@link #start(Duration)} to admit them.
+     *
+     * @param primary       The DataSource to fall back to.
+     * @param replicas      The replicas by name, in the order they should be tried.
+     * @param maxLag        How far behind the primary a replica may be and still be used.
+     * @param meterRegistry Used to publish the lag and the fallbacks.
+     */
+    public ReplicaDataSource(DataSource primary, Map<String, DataSource> replicas, Duration maxLag,
+                             MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+        replicas.forEach((name, dataSource) -> {
+            Replica replica = new Replica(name, dataSource);
+            this.replicas.add(replica);
+            Gauge.builder("app.datasource.replica.lag", replica, r -> r.lagSeconds)
+                    .description("Replication lag measured at the last check, in seconds")
+                    .tag("replica", name)
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+        });
+        this.fallbackCounter = Counter.builder("app.datasource.replica.fallback")
+                .description("Read-only connections taken from the primary because no replica was usable")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Checks the replicas once, then keeps checking them in the background.
+     *
+     * @param interval The time between two checks.
+     */
+    public void start(Duration interval) {
+        checkLag();
+        lagChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        lagChecker.scheduleWithFixedDelay(this::checkLag, interval.toMillis(), interval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Measures the lag of every replica and decides which ones may be used.
+     */
+    public void checkLag() {
+        for (Replica replica : replicas) {
+            double lag = measureLag(replica);
+            boolean usable = lag <= maxLagSeconds;
+            if (usable != replica.usable) {
+                log.info("Replica {} is {} (lag {}s)", replica.name, usable ? "back in use" : "no longer used", lag);
+            }
+            replica.lagSeconds = lag;
+            replica.usable = usable;
+        }
+    }
+
+    private static double measureLag(Replica replica) {
+        try (Connection connection = replica.dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(LAG_QUERY)) {
+            resultSet.next();
+            double lag = resultSet.getDouble(1);
+            return resultSet.wasNull() ? Double.POSITIVE_INFINITY : lag;
+        } catch (SQLException | RuntimeException e) {
+            log.warn("Could not measure the lag of replica {}: {}", replica.name, e.getMessage());
+            return Double.POSITIVE_INFINITY;
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return getConnection(null, null);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(1, replicas.size()));
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (!replica.usable) {
+                continue;
+            }
+            try {
+                return username == null
+                        ? replica.dataSource.getConnection()
+                        : replica.dataSource.getConnection(username, password);
+            } catch (SQLException e) {
+                // Skip it until the next check shows it is reachable again.
+                replica.usable = false;
+                log.warn("Replica {} gave no connection, skipping it: {}", replica.name, e.getMessage());
+            }
+        }
+        fallbackCounter.increment();
+        return username == null ? primary.getConnection() : primary.getConnection(username, password);
+    }
+
+    /**
+     * Stops the lag checks and closes the replicas' connection pools.
+     */
+    @Override
+    public void close() throws Exception {
+        if (lagChecker != null) {
+            lagChecker.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
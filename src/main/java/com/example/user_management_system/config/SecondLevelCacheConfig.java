@@ -0,0 +1,68 @@
+package com.example.user_management_system.config;
+
+import com.example.user_management_system.entity.User;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Configures Hibernate's second-level cache for users, held in local Caffeine caches.
+ *
+ * Two regions are created: "users" holds users by id, and "users-by-username" maps usernames to
+ * ids, so UserRepository.findByUsername and findById are answered from memory once a user has been
+ * read. Both regions are bounded by app.jpa.cache.max-size and expire entries after app.jpa.cache.ttl.
+ * Hibernate keeps them in step with writes made through the entity manager and with bulk JPQL
+ * updates such as UserRepository.updatePassword.
+ *
+ * The rest of the cache settings, and the statistics behind the "hibernate.*" metrics, are in
+ * application.properties.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    /**
+     * Creates the Caffeine-backed JCache manager and the user regions.
+     * Each application context gets a manager of its own, so regions are never shared between
+     * contexts (as can happen in tests).
+     *
+     * @param maxSize The maximum number of entries per region.
+     * @param ttl     How long an entry stays cached after it was written.
+     * @return The cache manager, closed with the application context.
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(@Value("${app.jpa.cache.max-size:10000}") long maxSize,
+                                              @Value("${app.jpa.cache.ttl:10m}") Duration ttl) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("hibernate-" + UUID.randomUUID()), getClass().getClassLoader());
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>()
+                .setMaximumSize(OptionalLong.of(maxSize))
+                .setExpireAfterWrite(OptionalLong.of(ttl.toNanos()))
+                // Hibernate already stores a disassembled copy, so there is no need to copy it again.
+                .setStoreByValue(false);
+        cacheManager.createCache(User.CACHE_REGION, configuration);
+        cacheManager.createCache(User.NATURAL_ID_CACHE_REGION, configuration);
+        return cacheManager;
+    }
+
+    /**
+     * Hands the cache manager above to Hibernate's JCache region factory.
+     *
+     * @param hibernateCacheManager The cache manager holding the regions.
+     * @return The customizer that adds the setting.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+}
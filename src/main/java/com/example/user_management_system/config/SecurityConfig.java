@@ -1,19 +1,44 @@
 package com.example.user_management_system.config;
 
 import com.example.user_management_system.exception.CustomAccessDeniedHandler;
+import com.example.user_management_system.exception.CustomAuthenticationEntryPoint;
+import com.example.user_management_system.repository.UserRepository;
+import com.example.user_management_system.security.AccessTokenAuthenticationFilter;
+import com.example.user_management_system.security.AccessTokenService;
+import com.example.user_management_system.security.BCryptStrengthCalibrator;
+import com.example.user_management_system.security.CachingAuthenticationProvider;
+import com.example.user_management_system.security.DatabaseUserDetailsService;
+import com.example.user_management_system.security.HashingOverloadFilter;
+import com.example.user_management_system.security.LoginThrottle;
+import com.example.user_management_system.security.LoginThrottleFilter;
+import com.example.user_management_system.security.OffloadedPasswordEncoder;
+import com.example.user_management_system.security.TimedSecurityFilter;
+import com.example.user_management_system.service.PasswordHashingService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.Filter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.config.Customizer;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+import org.springframework.security.web.DefaultSecurityFilterChain;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Security configuration class for the application.
@@ -25,35 +50,78 @@ import org.springframework.security.web.SecurityFilterChain;
 @EnableWebSecurity
 public class SecurityConfig {
 
-    // Inject our custom handler
+    // Inject our custom handlers
     private final CustomAccessDeniedHandler customAccessDeniedHandler;
+    private final CustomAuthenticationEntryPoint customAuthenticationEntryPoint;
 
     @Autowired
-    public SecurityConfig(CustomAccessDeniedHandler customAccessDeniedHandler) {
+    public SecurityConfig(CustomAccessDeniedHandler customAccessDeniedHandler,
+                          CustomAuthenticationEntryPoint customAuthenticationEntryPoint) {
         this.customAccessDeniedHandler = customAccessDeniedHandler;
+        this.customAuthenticationEntryPoint = customAuthenticationEntryPoint;
     }
 
     /**
      * Defines a PasswordEncoder bean to be used for encoding and validating passwords.
      * We use BCryptPasswordEncoder, which is a strong hashing algorithm.
      *
+     * Its strength is calibrated at startup so one hash takes about the target time on this machine,
+     * unless a fixed strength is configured. New hashes are stored as "{bcrypt}..." through a
+     * DelegatingPasswordEncoder; older hashes without that prefix still match, and any hash with a
+     * different prefix or a lower strength is rehashed on the user's next successful login.
+     * The hashing itself runs on the bounded PasswordHashingService pool, not on the calling thread.
+     *
+     * @param hashingService The pool that runs the hashing.
+     * @param strength       A fixed BCrypt strength, or 0 to calibrate.
+     * @param targetTime     The wanted time for one hash when calibrating.
+     * @param minStrength    The lowest strength calibration may choose.
+     * @param maxStrength    The highest strength calibration may choose.
      * @return A PasswordEncoder instance.
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public OffloadedPasswordEncoder passwordEncoder(
+            PasswordHashingService hashingService,
+            @Value("${app.security.password.strength:0}") int strength,
+            @Value("${app.security.password.target-hash-time:250ms}") Duration targetTime,
+            @Value("${app.security.password.min-strength:10}") int minStrength,
+            @Value("${app.security.password.max-strength:14}") int maxStrength) {
+        int bcryptStrength = strength > 0
+                ? strength
+                : BCryptStrengthCalibrator.calibrate(targetTime, minStrength, maxStrength);
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        // Hashes stored before this encoder was introduced have no "{bcrypt}" prefix.
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+        return new OffloadedPasswordEncoder(delegating, hashingService);
     }
 
     /**
      * Configures the security filter chain that applies to all HTTP requests.
      * This is where we define our authorization rules.
+     * Every filter of the chain is wrapped in a TimedSecurityFilter, so the time spent in each stage is measured.
      *
-     * @param http The HttpSecurity object to configure.
+     * @param http          The HttpSecurity object to configure.
+     * @param objectMapper  Writes the JSON body of 503 responses.
+     * @param meterRegistry The registry of the filter timers.
+     * @param accessTokenService Checks the bearer tokens issued by POST /auth/token.
+     * @param loginThrottle      Counts failed logins, so repeated failures are refused before hashing.
+     * @param throttleEnabled    Whether failed logins are throttled at all.
      * @return The configured SecurityFilterChain.
      * @throws Exception if an error occurs during configuration.
      */
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, ObjectMapper objectMapper,
+                                           MeterRegistry meterRegistry,
+                                           AccessTokenService accessTokenService,
+                                           LoginThrottle loginThrottle,
+                                           @Value("${app.security.login-throttle.enabled:true}") boolean throttleEnabled)
+            throws Exception {
+        if (throttleEnabled) {
+            // Refuse logins from clients or for usernames with too many recent failures, with 429, before any hashing.
+            http.addFilterBefore(new LoginThrottleFilter(loginThrottle, objectMapper, meterRegistry),
+                    BasicAuthenticationFilter.class);
+        }
         http
                 // Disable CSRF protection for this simple REST API.
                 // For stateful, browser-based applications, CSRF protection is crucial.
@@ -62,30 +130,131 @@ public class SecurityConfig {
                 .authorizeHttpRequests(authz -> authz
                         // Allow unauthenticated access to the /public endpoint.
                         .requestMatchers("/public").permitAll()
+                        // Allow unauthenticated access to the health check used by load balancers.
+                        .requestMatchers("/actuator/health").permitAll()
+                        // Other actuator endpoints (metrics) are for admins only.
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
+                        // Any authenticated user can get an access token.
+                        .requestMatchers("/auth/token").authenticated()
                         // Allow access to /user endpoint for users with "USER" or "ADMIN" roles.
                         .requestMatchers("/user").hasAnyRole("USER", "ADMIN")
-                        // Allow access to /admin and /users endpoints only for users with "ADMIN" role.
-                        .requestMatchers("/admin", "/users").hasRole("ADMIN")
+                        // Allow access to /admin, /users and their sub-paths only for users with "ADMIN" role.
+                        .requestMatchers("/admin", "/admin/**", "/users", "/users/**").hasRole("ADMIN")
                         // All other requests must be authenticated.
                         .anyRequest().authenticated()
                 )
+                // Answer with 503 instead of an error when the password hashing pool is saturated during login.
+                .addFilterBefore(new HashingOverloadFilter(objectMapper), BasicAuthenticationFilter.class)
+                // Accept "Authorization: Bearer" access tokens; those requests skip HTTP Basic and BCrypt.
+                .addFilterBefore(new AccessTokenAuthenticationFilter(accessTokenService, customAuthenticationEntryPoint),
+                        BasicAuthenticationFilter.class)
                 // Enable HTTP Basic Authentication.
-                // We configure the exception handling to use our custom handler.
+                // We configure the exception handling to use our custom handlers.
                 .exceptionHandling(e -> e.accessDeniedHandler(customAccessDeniedHandler))
-                .httpBasic(Customizer.withDefaults());
+                .httpBasic(basic -> basic.authenticationEntryPoint(customAuthenticationEntryPoint));
+
+        DefaultSecurityFilterChain chain = http.build();
+        List<Filter> timedFilters = chain.getFilters().stream()
+                .map(filter -> (Filter) new TimedSecurityFilter(filter, meterRegistry))
+                .toList();
+        return new DefaultSecurityFilterChain(chain.getRequestMatcher(), timedFilters);
+    }
+
+    /**
+     * Defines the clock that token expiry and the login throttle are measured with.
+     *
+     * @return The system clock, in UTC.
+     */
+    @Bean
+    public Clock clock() {
+        return Clock.systemUTC();
+    }
+
+    /**
+     * Defines the service that issues and checks the access tokens of POST /auth/token.
+     *
+     * @param objectMapper Writes and reads the token payload.
+     * @param ttl          How long a token is valid.
+     * @param keyRotation  How long each signing key signs new tokens.
+     * @param secret       The secret signing keys are derived from; blank means a random one per process.
+     * @param maxRevokedUsers The maximum number of usernames whose token revocations are kept individually.
+     * @param clock        The source of the current time.
+     * @return The AccessTokenService.
+     */
+    @Bean
+    public AccessTokenService accessTokenService(
+            ObjectMapper objectMapper,
+            @Value("${app.security.token.ttl:15m}") Duration ttl,
+            @Value("${app.security.token.key-rotation:1h}") Duration keyRotation,
+            @Value("${app.security.token.secret:}") String secret,
+            @Value("${app.security.token.max-revoked-users:100000}") long maxRevokedUsers,
+            Clock clock) {
+        return new AccessTokenService(objectMapper, ttl, keyRotation, secret, maxRevokedUsers, clock);
+    }
+
+    /**
+     * Defines the counters of failed logins used by the LoginThrottleFilter.
+     *
+     * @param window                 The length of the sliding window failures are counted in.
+     * @param maxFailuresPerIp       Failed logins allowed from one IP address per window.
+     * @param maxFailuresPerUsername Failed logins allowed for one username per window.
+     * @param tableSize              The number of counters per table row; this fixes the memory used.
+     * @param clock                  The source of the current time.
+     * @return The LoginThrottle.
+     */
+    @Bean
+    public LoginThrottle loginThrottle(
+            @Value("${app.security.login-throttle.window:1m}") Duration window,
+            @Value("${app.security.login-throttle.max-failures-per-ip:50}") int maxFailuresPerIp,
+            @Value("${app.security.login-throttle.max-failures-per-username:10}") int maxFailuresPerUsername,
+            @Value("${app.security.login-throttle.table-size:65536}") int tableSize,
+            Clock clock) {
+        return new LoginThrottle(window, maxFailuresPerIp, maxFailuresPerUsername, tableSize, clock);
+    }
 
-        return http.build();
+    /**
+     * Defines the AuthenticationProvider used by HTTP Basic.
+     * The usual DaoAuthenticationProvider does the real password check, and a cache in front of it
+     * remembers successful checks so repeat requests don't pay for BCrypt every time.
+     *
+     * Outdated password hashes are replaced through the UserDetailsService after a successful login.
+     *
+     * @param userDetailsService The store to load users from, and to save upgraded hashes to.
+     * @param passwordEncoder    The encoder used to verify passwords.
+     * @param ttl                How long a successful check is remembered.
+     * @param maxSize            The maximum number of remembered checks.
+     * @return The caching AuthenticationProvider.
+     */
+    @Bean
+    public CachingAuthenticationProvider authenticationProvider(
+            DatabaseUserDetailsService userDetailsService,
+            PasswordEncoder passwordEncoder,
+            @Value("${app.security.auth-cache.ttl:5m}") Duration ttl,
+            @Value("${app.security.auth-cache.max-size:10000}") long maxSize) {
+        DaoAuthenticationProvider daoProvider = new DaoAuthenticationProvider(userDetailsService);
+        daoProvider.setPasswordEncoder(passwordEncoder);
+        daoProvider.setUserDetailsPasswordService(userDetailsService);
+        return new CachingAuthenticationProvider(daoProvider, ttl, maxSize);
     }
 
     /**
-     * Defines an in-memory user store with two predefined users.
-     * This is a simple way to manage users without a database for this assignment.
+     * Defines the store that users are loaded from during authentication.
+     * Users created through the API live in the "users" table and are read through UserRepository,
+     * with a small cache in front so a login doesn't cost a database round trip every time.
+     * The two predefined users below are kept in memory and used when a username is not in the database.
      *
+     * @param userRepository  The repository for user data access.
      * @param passwordEncoder The PasswordEncoder to use for encoding passwords.
-     * @return A UserDetailsService with the predefined users.
+     * @param ttl             How long a loaded user is cached.
+     * @param maxSize         The maximum number of cached users.
+     * @return A UserDetailsService backed by the database and the predefined users.
      */
     @Bean
-    public UserDetailsService userDetailsService(PasswordEncoder passwordEncoder) {
+    public DatabaseUserDetailsService userDetailsService(
+            UserRepository userRepository,
+            PasswordEncoder passwordEncoder,
+            @Value("${app.security.user-cache.ttl:10m}") Duration ttl,
+            @Value("${app.security.user-cache.max-size:10000}") long maxSize) {
         // Create the 'intern' user.
         UserDetails internUser = User.builder()
                 .username("intern")
@@ -101,6 +270,7 @@ public class SecurityConfig {
                 .build();
 
         // InMemoryUserDetailsManager is a non-persistent implementation of UserDetailsService.
-        return new InMemoryUserDetailsManager(internUser, adminUser);
+        InMemoryUserDetailsManager builtInUsers = new InMemoryUserDetailsManager(internUser, adminUser);
+        return new DatabaseUserDetailsService(userRepository, builtInUsers, ttl, maxSize);
     }
 }
@@ -0,0 +1,39 @@
+package com.example.user_management_system.config;
+
+import com.example.user_management_system.service.SlowQueryLog;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Times the statements run on the application's DataSource (app.sql-log.enabled, on by default).
+ *
+ * The DataSource bean named "dataSource" is wrapped in a StatementTimingDataSource, whatever it is:
+ * Spring Boot's connection pool, possibly already wrapped by VirtualThreadConfig, or the routing
+ * DataSource of ReadReplicaConfig, so statements sent to replicas are timed too.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.sql-log.enabled", havingValue = "true", matchIfMissing = true)
+public class SlowQueryLogConfig {
+
+    /**
+     * @param slowQueryLog Where statement timings are reported.
+     * @return The BeanPostProcessor that wraps the DataSource.
+     */
+    @Bean
+    public static BeanPostProcessor statementTimingDataSourcePostProcessor(ObjectProvider<SlowQueryLog> slowQueryLog) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && beanName.equals("dataSource")) {
+                    return new StatementTimingDataSource(dataSource, slowQueryLog.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.user_management_system.config;
+
+import com.example.user_management_system.service.SlowQueryLog;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+
+/**
+ * A DataSource that times every statement run on its connections and hands the timing to the SlowQueryLog.
+ *
+ * Connections and the statements they create are wrapped in JDK proxies. A statement's execute*
+ * calls are timed, and the set* calls made on a PreparedStatement before it runs are counted as its
+ * bind parameters (added up over a batch). Timing only costs two System.nanoTime calls per statement;
+ * whether anything is logged is decided by the SlowQueryLog.
+ */
+public class StatementTimingDataSource extends DelegatingDataSource {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of("execute", "executeQuery", "executeUpdate",
+            "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+    private static final Set<String> STATEMENT_FACTORIES = Set.of("createStatement", "prepareStatement", "prepareCall");
+
+    private final SlowQueryLog slowQueryLog;
+
+    /**
+     * @param targetDataSource The DataSource whose statements are timed.
+     * @param slowQueryLog     Where timings are reported.
+     */
+    public StatementTimingDataSource(DataSource targetDataSource, SlowQueryLog slowQueryLog) {
+        super(targetDataSource);
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return timed(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return timed(super.getConnection(username, password));
+    }
+
+    private Connection timed(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(
+                StatementTimingDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof Statement statement && STATEMENT_FACTORIES.contains(method.getName())) {
+                        String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                        return timed(statement, sql, (Connection) proxy);
+                    }
+                    return result;
+                });
+    }
+
+    private Statement timed(Statement statement, String preparedSql, Connection connection) {
+        Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                : statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+        // Only touched by the thread using the statement, like the statement itself.
+        int[] parameters = new int[1];
+        String[] batchSql = new String[1];
+        return (Statement) Proxy.newProxyInstance(
+                StatementTimingDataSource.class.getClassLoader(),
+                new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (EXECUTE_METHODS.contains(name)) {
+                        String sql = preparedSql != null ? preparedSql
+                                : args != null && args.length > 0 && args[0] instanceof String s ? s : batchSql[0];
+                        long start = System.nanoTime();
+                        try {
+                            return invoke(statement, method, args);
+                        } finally {
+                            slowQueryLog.record(sql, System.nanoTime() - start, parameters[0],
+                                    name.endsWith("Batch"));
+                            parameters[0] = 0;
+                            batchSql[0] = null;
+                        }
+                    }
+                    if (name.startsWith("set") && preparedSql != null && args != null && args.length >= 2
+                            && args[0] instanceof Integer) {
+                        parameters[0]++;
+                    } else if (name.equals("addBatch") && args != null && args.length == 1) {
+                        batchSql[0] = batchSql[0] == null ? (String) args[0] : batchSql[0];
+                    } else if (name.equals("getConnection")) {
+                        return connection;
+                    }
+                    return invoke(statement, method, args);
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.user_management_system.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Extra configuration for running on virtual threads (spring.threads.virtual.enabled=true,
+ * see application-virtual.properties).
+ *
+ * Spring Boot itself switches Tomcat request handling, the application task executor and
+ * Spring MVC async requests (such as /users/export) to virtual threads. This class guards
+ * the database against the resulting flood of concurrent callers by putting a
+ * ConnectionLimitingDataSource in front of the Hikari pool.
+ *
+ * The PasswordHashingService pool deliberately keeps its platform threads: hashing is
+ * CPU-bound, and its pool size is what caps how many cores BCrypt may use.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    /**
+     * Wraps the Hikari pool so that at most maximum-pool-size threads hold a connection at once.
+     *
+     * @param acquireTimeoutMillis How long a thread waits for a connection permit.
+     * @param meterRegistry        Used to publish the number of waiting threads.
+     * @return The BeanPostProcessor that wraps the DataSource.
+     */
+    @Bean
+    public static BeanPostProcessor connectionLimitingDataSourcePostProcessor(
+            @Value("${app.datasource.connection-permit-timeout-ms:2000}") long acquireTimeoutMillis,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari) {
+                    ConnectionLimitingDataSource limited = new ConnectionLimitingDataSource(
+                            hikari, hikari.getMaximumPoolSize(), acquireTimeoutMillis);
+                    meterRegistry.ifAvailable(registry -> Gauge.builder(
+                                    "app.datasource.connection.permit.waiting", limited,
+                                    ConnectionLimitingDataSource::getWaitingThreads)
+                            .description("Threads waiting for a database connection permit")
+                            .register(registry));
+                    return limited;
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.user_management_system.controller;
+
+import com.example.user_management_system.dto.QueryShapeStats;
+import com.example.user_management_system.security.CachingAuthenticationProvider;
+import com.example.user_management_system.service.SlowQueryLog;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST Controller for operational endpoints under /admin.
+ * Every endpoint here is accessible only by users with the "ADMIN" role.
+ */
+@RestController
+public class AdminController {
+
+    private final CachingAuthenticationProvider authenticationProvider;
+    private final SlowQueryLog slowQueryLog;
+
+    @Autowired
+    public AdminController(CachingAuthenticationProvider authenticationProvider, SlowQueryLog slowQueryLog) {
+        this.authenticationProvider = authenticationProvider;
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    /**
+     * Handles GET requests to the /admin/auth-cache endpoint.
+     * Reports how well the authentication cache is doing, so its size and TTL can be tuned.
+     *
+     * @return The hit/miss counters and current size of the authentication cache.
+     */
+    @GetMapping("/admin/auth-cache")
+    public Map<String, Object> authCacheStats() {
+        CacheStats stats = authenticationProvider.stats();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("hits", stats.hitCount());
+        body.put("misses", stats.missCount());
+        body.put("hitRate", stats.hitRate());
+        body.put("evictions", stats.evictionCount());
+        body.put("size", authenticationProvider.size());
+        return body;
+    }
+
+    /**
+     * Handles GET requests to the /admin/queries endpoint.
+     * Reports which SQL statements the database time goes to, grouped by query shape.
+     *
+     * @param limit The maximum number of shapes to return.
+     * @return The count, total and maximum time of the shapes with the highest total time, highest first.
+     */
+    @GetMapping("/admin/queries")
+    public List<QueryShapeStats> queryStats(@RequestParam(defaultValue = "50") int limit) {
+        return slowQueryLog.topShapes(Math.max(0, limit));
+    }
+
+    /**
+     * Handles DELETE requests to the /admin/queries endpoint.
+     * Starts the query statistics afresh, for example before a load test.
+     *
+     * @return 204 No Content.
+     */
+    @DeleteMapping("/admin/queries")
+    public ResponseEntity<Void> resetQueryStats() {
+        slowQueryLog.reset();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.user_management_system.controller;
+
+import com.example.user_management_system.security.AccessTokenService;
+import com.example.user_management_system.security.AccessTokenService.AccessToken;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * REST Controller that trades a password login for an access token.
+ */
+@RestController
+public class AuthController {
+
+    private final AccessTokenService accessTokenService;
+    private final Clock clock;
+
+    @Autowired
+    public AuthController(AccessTokenService accessTokenService, Clock clock) {
+        this.accessTokenService = accessTokenService;
+        this.clock = clock;
+    }
+
+    /**
+     * Handles POST requests to the /auth/token endpoint.
+     * The caller authenticates with HTTP Basic once, and then sends the returned token as
+     * "Authorization: Bearer ..." on later requests, which skips the password hash.
+     *
+     * @param authentication The user, authenticated with their password.
+     * @return The token, its type and its lifetime in seconds.
+     */
+    @PostMapping("/auth/token")
+    public Map<String, Object> issueToken(Authentication authentication) {
+        if (authentication instanceof PreAuthenticatedAuthenticationToken) {
+            // Otherwise a token could be renewed forever without the password ever being checked again.
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "A token can only be issued after a password login.");
+        }
+        AccessToken token = accessTokenService.issue(authentication);
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("access_token", token.value());
+        body.put("token_type", "Bearer");
+        body.put("expires_in", Duration.between(clock.instant(), token.expiresAt()).toSeconds());
+        return body;
+    }
+}
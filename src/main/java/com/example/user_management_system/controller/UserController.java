@@ -1,14 +1,37 @@
 package com.example.user_management_system.controller;
 
+import com.example.user_management_system.dto.UserImportResult;
+import com.example.user_management_system.dto.UserSearchResult;
+import com.example.user_management_system.dto.UserView;
 import com.example.user_management_system.entity.User;
-import com.example.user_management_system.exception.ResourceConflictException;
-import com.example.user_management_system.repository.UserRepository;
+import com.example.user_management_system.event.AuditEvent;
+import com.example.user_management_system.service.AuditService;
+import com.example.user_management_system.service.UserExportService;
+import com.example.user_management_system.service.UserImportService;
+import com.example.user_management_system.service.UserService;
+import com.example.user_management_system.service.UsernameSearchIndex;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.Principal;
+import java.util.List;
+import java.util.Locale;
 
 /**
  * REST Controller for handling user-related API endpoints.
@@ -19,20 +42,42 @@ import org.springframework.web.bind.annotation.*;
 @RestController
 public class UserController {
 
-    private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_SEARCH_RESULTS = 1000;
+
+    private final UserService userService;
+    private final UserImportService userImportService;
+    private final UserExportService userExportService;
+    private final AuditService auditService;
+    private final UsernameSearchIndex searchIndex;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter importRowWriter;
 
     /**
      * Constructor-based dependency injection.
      * This is the recommended way to inject dependencies in Spring.
      *
-     * @param userRepository The repository for user data access.
-     * @param passwordEncoder The encoder for hashing passwords.
+     * @param userService The service that creates users.
+     * @param userImportService The service for creating users in bulk.
+     * @param userExportService The service for streaming all users out.
+     * @param auditService The journal that records who created which users.
+     * @param searchIndex The in-memory index for searching users by username.
+     * @param objectMapper The mapper used to write import results as they are produced.
      */
     @Autowired
-    public UserController(UserRepository userRepository, PasswordEncoder passwordEncoder) {
-        this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+    public UserController(UserService userService,
+                          UserImportService userImportService, UserExportService userExportService,
+                          AuditService auditService, UsernameSearchIndex searchIndex,
+                          ObjectMapper objectMapper) {
+        this.userService = userService;
+        this.userImportService = userImportService;
+        this.userExportService = userExportService;
+        this.auditService = auditService;
+        this.searchIndex = searchIndex;
+        this.objectMapper = objectMapper;
+        // Rows are flushed once per chunk, not once each.
+        this.importRowWriter = objectMapper.writerFor(UserImportResult.Row.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
     /**
@@ -75,23 +120,206 @@ public class UserController {
      * The @Valid annotation triggers the validation rules on the newUser object.
      * If validation fails, it will throw a MethodArgumentNotValidException.
      *
-     * @param newUser The User object to be created.
-     * @return A ResponseEntity containing the created User and HTTP status 201 (Created).
+     * The creation is recorded in the audit journal, with the admin who made it.
+     * The response is the new user's view, without the password hash.
+     *
+     * @param newUser   The User object to be created.
+     * @param principal The admin making the request.
+     * @return A ResponseEntity containing the created user and HTTP status 201 (Created).
      */
     @PostMapping("/users")
-    public ResponseEntity<User> createUser(@Valid @RequestBody User newUser) {
-        // Check if username or email already exists (we'll handle this better in the next step)
-        if (userRepository.findByUsername(newUser.getUsername()).isPresent()) {
-            throw new ResourceConflictException("Username '" + newUser.getUsername() + "' is already taken.");
+    public ResponseEntity<UserView> createUser(@Valid @RequestBody User newUser, Principal principal) {
+        // The username check, password encoding and insert all happen in the service.
+        // A taken username results in a ResourceConflictException.
+        User savedUser = userService.createUser(newUser);
+        auditService.record(AuditEvent.Type.USER_CREATED, principal.getName(), savedUser.getUsername(),
+                "role=" + savedUser.getRole());
+        // Return the saved user in the response with a 201 Created status.
+        return new ResponseEntity<>(new UserView(savedUser.getId(), savedUser.getUsername(), savedUser.getRole()),
+                HttpStatus.CREATED);
+    }
+
+    /**
+     * Handles GET requests to the /users endpoint to list users.
+     * This endpoint is accessible only by users with the "ADMIN" role.
+     * Users are ordered by id and paged with a keyset: pass the last id of a page as "after"
+     * to get the next one. Only the id, username and role columns are read.
+     *
+     * @param after The last id of the previous page, or 0 for the first page.
+     * @param size  The number of users per page, at most 100.
+     * @return A page of users, without password hashes.
+     */
+    @GetMapping("/users")
+    public List<UserView> listUsers(@RequestParam(defaultValue = "0") long after,
+                                    @RequestParam(defaultValue = "20") int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "size must be between 1 and " + MAX_PAGE_SIZE + ".");
         }
+        return userService.listUsers(after, size);
+    }
 
-        // If no exception is thrown, we proceed to create the user.
-        // Before saving, encode the plain-text password.
-        newUser.setPassword(passwordEncoder.encode(newUser.getPassword()));
-        // Save the new user to the database.
-        User savedUser = userRepository.save(newUser);
-        // Return the saved user in the response with a 201 Created status.
-        return new ResponseEntity<>(savedUser, HttpStatus.CREATED);
+    /**
+     * Handles GET requests to the /users/{id} endpoint to read one user.
+     * This endpoint is accessible only by users with the "ADMIN" role.
+     *
+     * @param id The id of the user.
+     * @return The user, without the password hash.
+     */
+    @GetMapping("/users/{id:\\d+}")
+    public UserView getUser(@PathVariable Long id) {
+        return userService.findUser(id).orElseThrow(() -> userNotFound(id));
+    }
+
+    /**
+     * Handles PUT requests to the /users/{id} endpoint to replace a user's username, password and role.
+     * This endpoint is accessible only by users with the "ADMIN" role.
+     * The body is validated like the one of POST /users, and the password is encoded before it is stored.
+     * The update is recorded in the audit journal, and once it commits, the user's caches are
+     * evicted and its access tokens revoked on every instance.
+     *
+     * @param id        The id of the user.
+     * @param changes   The new values of the user.
+     * @param principal The admin making the request.
+     * @return The updated user, without the password hash.
+     */
+    @PutMapping("/users/{id:\\d+}")
+    public UserView updateUser(@PathVariable Long id, @Valid @RequestBody User changes, Principal principal) {
+        UserView updated = userService.updateUser(id, changes).orElseThrow(() -> userNotFound(id));
+        auditService.record(AuditEvent.Type.USER_UPDATED, principal.getName(), updated.username(),
+                "role=" + updated.role());
+        return updated;
     }
-}
 
+    /**
+     * Handles DELETE requests to the /users/{id} endpoint to delete a user.
+     * This endpoint is accessible only by users with the "ADMIN" role.
+     * The delete is recorded in the audit journal, and once it commits, the user's caches are
+     * evicted and its access tokens revoked on every instance.
+     *
+     * @param id        The id of the user.
+     * @param principal The admin making the request.
+     * @return HTTP status 204 (No Content).
+     */
+    @DeleteMapping("/users/{id:\\d+}")
+    public ResponseEntity<Void> deleteUser(@PathVariable Long id, Principal principal) {
+        UserView deleted = userService.deleteUser(id).orElseThrow(() -> userNotFound(id));
+        auditService.record(AuditEvent.Type.USER_DELETED, principal.getName(), deleted.username(),
+                "role=" + deleted.role());
+        return ResponseEntity.noContent().build();
+    }
+
+    private static ResponseStatusException userNotFound(Long id) {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "User " + id + " was not found.");
+    }
+
+    /**
+     * Handles POST requests to the /users/import endpoint to create many users at once.
+     * This endpoint is accessible only by users with the "ADMIN" role.
+     * The body is either a JSON array of users or one JSON user per line (NDJSON), and it is
+     * read as a stream, so very large imports don't have to fit in memory.
+     * Each row is validated and created independently; the response reports the outcome of every row.
+     * Results are written as each chunk of rows is imported: first a "rows" array, in input order, then
+     * the "created" and "failed" totals. Neither the input nor the results are ever held in memory whole.
+     * Every created user is recorded in the audit journal by the service, followed here by a summary of the import.
+     *
+     * @param body      The raw request body.
+     * @param principal The admin making the request.
+     * @param response  The response the results are written to, with HTTP status 200 (OK).
+     * @throws IOException if the request body can't be read or the response can't be written.
+     */
+    @PostMapping(value = "/users/import",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public void importUsers(InputStream body, Principal principal, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            json.writeStartObject();
+            json.writeArrayFieldStart("rows");
+            UserImportResult result = userImportService.importUsers(body, principal.getName(),
+                    rows -> writeRows(json, rows));
+            json.writeEndArray();
+            json.writeNumberField("created", result.created());
+            json.writeNumberField("failed", result.failed());
+            json.writeEndObject();
+            auditService.record(AuditEvent.Type.USERS_IMPORTED, principal.getName(), null,
+                    "created=" + result.created() + ", failed=" + result.failed());
+        }
+    }
+
+    private void writeRows(JsonGenerator json, List<UserImportResult.Row> rows) {
+        try {
+            for (UserImportResult.Row row : rows) {
+                importRowWriter.writeValue(json, row);
+            }
+            // Let the client see each chunk's results while the next one is imported.
+            json.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Handles GET requests to the /users/export endpoint to download every user.
+     * This endpoint is accessible only by users with the "ADMIN" role.
+     * Users are written straight to the response as they are read, without password hashes,
+     * so the export works in constant memory however large the table is.
+     * The body is streamed asynchronously, with its own timeout (app.export.timeout) instead of the
+     * default one for async requests.
+     *
+     * @param format  The output format, either "ndjson" (the default) or "csv".
+     * @param request The current request, whose async timeout is set for the export.
+     * @return A ResponseEntity whose body streams the users.
+     */
+    @GetMapping("/users/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers(@RequestParam(defaultValue = "ndjson") String format,
+                                                             HttpServletRequest request) {
+        UserExportService.Format exportFormat;
+        try {
+            exportFormat = UserExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown export format '" + format + "'.");
+        }
+
+        // Set before the StreamingResponseBody starts async processing, which then uses it.
+        WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest()
+                .setTimeout(userExportService.timeout().toMillis());
+        StreamingResponseBody body = out -> userExportService.export(exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.contentType()))
+                .body(body);
+    }
+
+    /**
+     * Handles GET requests to the /users/autocomplete endpoint to search users by username.
+     * This endpoint is accessible only by users with the "ADMIN" role.
+     * Usernames starting with q come first, then usernames containing it (for q of 3 or more
+     * characters), ignoring case. The search runs on the in-memory UsernameSearchIndex, never
+     * on the database. Only the first 1000 results can be paged through.
+     *
+     * @param q    The text to search for.
+     * @param page The zero-based page number.
+     * @param size The number of users per page, at most 100.
+     * @return A page of matching users, without password hashes.
+     */
+    @GetMapping("/users/autocomplete")
+    public UserSearchResult searchUsers(@RequestParam String q,
+                                        @RequestParam(defaultValue = "0") int page,
+                                        @RequestParam(defaultValue = "20") int size) {
+        if (q.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The search text must not be blank.");
+        }
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE || (long) (page + 1) * size > MAX_SEARCH_RESULTS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "page and size must select one of the first " + MAX_SEARCH_RESULTS + " results, with at most "
+                            + MAX_PAGE_SIZE + " per page.");
+        }
+        if (!searchIndex.isReady()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "The search index is still loading.");
+        }
+
+        // One extra result tells whether there is a next page.
+        List<UserView> users = searchIndex.search(q, page * size, size + 1);
+        boolean hasMore = users.size() > size;
+        return new UserSearchResult(q, page, size, hasMore, hasMore ? users.subList(0, size) : users);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.user_management_system.dto;
+
+/**
+ * The statistics of one query shape in the slow-query log (see SlowQueryLog).
+ *
+ * @param shape       The SQL statement, with literals replaced by "?".
+ * @param count       How many times statements of this shape ran.
+ * @param totalMillis Their total run time, in milliseconds.
+ * @param maxMillis   The longest run time, in milliseconds.
+ */
+public record QueryShapeStats(String shape, long count, double totalMillis, double maxMillis) {
+}
@@ -0,0 +1,41 @@
+package com.example.user_management_system.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * The totals of a bulk user import.
+ *
+ * The response of POST /users/import is written as the import goes: a "rows" array with one Row
+ * per row of the input, in input order, followed by these totals.
+ *
+ * @param created The number of users that were created.
+ * @param failed  The number of rows that were rejected.
+ */
+public record UserImportResult(int created, int failed) {
+
+    /**
+     * The outcome of importing a single row.
+     */
+    public enum Status {
+        CREATED,
+        /** The username already exists in the database or earlier in the same import. */
+        DUPLICATE,
+        /** The row failed bean validation or could not be parsed. */
+        INVALID,
+        /** The database rejected the row for another reason than a taken username. */
+        ERROR
+    }
+
+    /**
+     * @param index    The zero-based position of the row in the input.
+     * @param username The username of the row, if it could be read.
+     * @param status   The outcome of the row.
+     * @param id       The id of the created user, only set for CREATED rows.
+     * @param errors   The reasons a row was rejected, only set for INVALID and ERROR rows.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Row(int index, String username, Status status, Long id, List<String> errors) {
+    }
+}
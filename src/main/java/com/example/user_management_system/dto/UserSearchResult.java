@@ -0,0 +1,15 @@
+package com.example.user_management_system.dto;
+
+import java.util.List;
+
+/**
+ * One page of a username search.
+ *
+ * @param query   The text that was searched for.
+ * @param page    The zero-based page number.
+ * @param size    The maximum number of users per page.
+ * @param hasMore Whether there is a next page.
+ * @param users   The users on this page, best match first.
+ */
+public record UserSearchResult(String query, int page, int size, boolean hasMore, List<UserView> users) {
+}
@@ -0,0 +1,14 @@
+package com.example.user_management_system.dto;
+
+/**
+ * A read-only view of a user without the password hash.
+ *
+ * Queries that select this record through a JPQL constructor expression never load the
+ * password column and don't put managed User entities into the persistence context.
+ *
+ * @param id       The primary key of the user.
+ * @param username The username of the user.
+ * @param role     The role of the user.
+ */
+public record UserView(Long id, String username, String role) {
+}
@@ -1,12 +1,20 @@
 package com.example.user_management_system.entity;
 
+import com.example.user_management_system.event.UserChangePublisher;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
-import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 /**
  * Represents the User entity and maps to the "users" table in the database.
@@ -14,23 +22,37 @@ import lombok.NoArgsConstructor;
  * We are using Lombok annotations to reduce boilerplate code:
  * @Data: Generates getters, setters, toString(), equals(), and hashCode() methods.
  * @NoArgsConstructor: Generates a no-argument constructor.
- * @AllArgsConstructor: Generates a constructor with all arguments.
+ * The constructor taking all persistent fields is written by hand so that it leaves out
+ * the transient loadedUsername field.
+ *
+ * Users are kept in Hibernate's second-level cache (see SecondLevelCacheConfig), both by id and,
+ * through the natural id, by username. READ_WRITE keeps the cache consistent with committed writes.
  */
 @Entity
 @Table(name = "users") // Specifies the table name in the database
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = User.CACHE_REGION)
+@NaturalIdCache(region = User.NATURAL_ID_CACHE_REGION)
+@EntityListeners(UserChangePublisher.class) // Publishes a UserChangedEvent on every insert, update and delete
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 public class User {
 
+    /** The second-level cache region of users by id. */
+    public static final String CACHE_REGION = "users";
+
+    /** The second-level cache region that maps usernames to ids. */
+    public static final String NATURAL_ID_CACHE_REGION = "users-by-username";
+
     /**
      * The primary key for the user entity.
      * @Id marks this field as the primary key.
      * @GeneratedValue specifies that the ID should be generated automatically.
-     * GenerationType.IDENTITY is suitable for auto-incrementing columns in PostgreSQL.
+     * GenerationType.SEQUENCE with a pooled allocation reserves 50 ids per database call,
+     * and unlike IDENTITY it lets Hibernate batch inserts, which the bulk import relies on.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -40,7 +62,10 @@ public class User {
      * @Column specifies the mapping to the database column.
      * 'unique = true' ensures that every username in the database is distinct.
      * 'nullable = false' means this field cannot be empty.
+     * @NaturalId lets Hibernate look users up by username through its natural-id cache.
+     * It is mutable because a user can be renamed.
      */
+    @NaturalId(mutable = true)
     @NotBlank(message = "Username cannot be blank")
     @Size(min = 3, max = 20, message = "Username must be between 3 and 20 characters")
     @Column(unique = true, nullable = false)
@@ -62,7 +87,10 @@ public class User {
      * @Size ensures the password is at least 8 characters long.
      * 'nullable = false' ensures that a password is always provided.
      * Note: This will be stored in an encoded format, not as plain text.
+     * Write-only in JSON: it is read from request bodies but never written, so no response that
+     * serializes a User (such as the Spring Data REST resources) can leak the hash.
      */
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     @NotBlank(message = "Password cannot be blank")
     @Size(min = 4, message = "Password must be at least 4 characters long")
     @Column(nullable = false)
@@ -76,4 +104,27 @@ public class User {
     @NotBlank(message = "Role cannot be blank")
     @Column(nullable = false)
     private String role;
+
+    /**
+     * The username as it was when this entity was loaded from the database.
+     * It is not persisted; it lets UserChangePublisher report renames so that caches
+     * keyed by username can evict the old name as well.
+     */
+    @Transient
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private String loadedUsername;
+
+    public User(Long id, String username, String password, String role) {
+        this.id = id;
+        this.username = username;
+        this.password = password;
+        this.role = role;
+    }
+
+    @PostLoad
+    void rememberLoadedUsername() {
+        this.loadedUsername = this.username;
+    }
 }
@@ -0,0 +1,22 @@
+package com.example.user_management_system.event;
+
+import java.time.Instant;
+
+/**
+ * One entry of the audit journal: who did what to whom, and when.
+ *
+ * Audit events are not Spring application events. They are handed to AuditService, which
+ * writes them in the background, so recording one never costs the caller any I/O.
+ *
+ * @param timestamp When it happened.
+ * @param type      What happened.
+ * @param actor     The username that acted (or tried to), or null if unknown.
+ * @param target    What was acted on: the created, updated or deleted username, or the requested path.
+ * @param detail    Extra facts, such as the role of a created user or the client address.
+ */
+public record AuditEvent(Instant timestamp, Type type, String actor, String target, String detail) {
+
+    public enum Type {
+        USER_CREATED, USER_UPDATED, USER_DELETED, USERS_IMPORTED, LOGIN_SUCCEEDED, LOGIN_FAILED, ACCESS_DENIED
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.user_management_system.event;
+
+import com.example.user_management_system.entity.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener that turns User lifecycle callbacks into UserChangedEvents.
+ *
+ * Because it hooks into JPA itself, it sees every write made through the entity, whether it
+ * comes from UserController, the bulk import or any other service.
+ * Spring Boot configures Hibernate to create entity listeners as Spring beans,
+ * so constructor injection works here.
+ */
+@Component
+public class UserChangePublisher {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    public UserChangePublisher(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    public void onCreate(User user) {
+        publish(user, UserChangedEvent.Type.CREATED);
+    }
+
+    @PostUpdate
+    public void onUpdate(User user) {
+        publish(user, UserChangedEvent.Type.UPDATED);
+    }
+
+    @PostRemove
+    public void onDelete(User user) {
+        publish(user, UserChangedEvent.Type.DELETED);
+    }
+
+    private void publish(User user, UserChangedEvent.Type type) {
+        eventPublisher.publishEvent(
+                new UserChangedEvent(user.getId(), user.getUsername(), user.getLoadedUsername(), user.getRole(), type));
+    }
+}
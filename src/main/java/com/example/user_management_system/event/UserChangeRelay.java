@@ -0,0 +1,337 @@
+package com.example.user_management_system.event;
+
+import com.example.user_management_system.entity.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Relays user changes between the instances of the application that share one database, so each
+ * instance evicts what it derived from a changed user (cached logins, cached users, second-level
+ * cache entries, the username filter and index) within a bounded delay.
+ *
+ * Every UserChangedEvent made by this instance is appended to the "user_changes" table, once the
+ * transaction that made it has committed; all the changes of one transaction go in a single JDBC batch.
+ * The batch is written by the relay's own thread: the committed transaction still holds its connection
+ * during its completion callbacks, and writing from there would need a second one from the pool.
+ * Every poll-interval, each instance reads the rows added since its last poll, in id order, and
+ * publishes the changes made by other instances as UserChangedEvents with remote set to true.
+ *
+ * Row ids come from a sequence, so a transaction that commits late can add a row below one already
+ * read. Such a gap is waited for until gap-timeout, after which it is taken to be a rolled-back insert.
+ * A change is therefore seen by the other instances within about poll-interval, and at worst within
+ * gap-timeout. Rows older than retention are deleted.
+ *
+ * Changes relayed are counted in "users.changes.published" and "users.changes.received"; the time from
+ * a change being logged to being applied on another instance is the "users.changes.lag" timer.
+ */
+@Component
+public class UserChangeRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(UserChangeRelay.class);
+    private static final Duration PURGE_INTERVAL = Duration.ofMinutes(1);
+
+    static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS user_changes ("
+            + "id BIGSERIAL PRIMARY KEY, "
+            + "node_id VARCHAR(36) NOT NULL, "
+            + "user_id BIGINT NOT NULL, "
+            + "username VARCHAR(255), "
+            + "previous_username VARCHAR(255), "
+            + "role VARCHAR(255), "
+            + "change_type VARCHAR(16) NOT NULL, "
+            + "created_at TIMESTAMP WITH TIME ZONE NOT NULL)";
+
+    private static final String INSERT = "INSERT INTO user_changes "
+            + "(node_id, user_id, username, previous_username, role, change_type, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SELECT_AFTER = "SELECT id, node_id, user_id, username, previous_username, role, "
+            + "change_type, created_at FROM user_changes WHERE id > ? ORDER BY id LIMIT ?";
+
+    private static final String SELECT_LAST_ID = "SELECT COALESCE(MAX(id), 0) FROM user_changes";
+
+    private static final String PURGE = "DELETE FROM user_changes WHERE created_at < ?";
+
+    /**
+     * A row of the "user_changes" table.
+     */
+    private record Change(long id, String nodeId, UserChangedEvent event) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManagerFactory entityManagerFactory;
+    private final boolean enabled;
+    private final Duration pollInterval;
+    private final int batchSize;
+    private final long gapTimeoutNanos;
+    private final Duration retention;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Counter publishedCounter;
+    private final Counter receivedCounter;
+    private final Counter writeFailureCounter;
+    private final Counter pollFailureCounter;
+    private final Timer lagTimer;
+
+    // Writes this instance's changes, polls for those of the others and purges old ones, one at a time.
+    private final ScheduledExecutorService relayThread = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "user-change-relay");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Only touched by the relay thread, after start.
+    private long lastId;
+    private final TreeSet<Long> seenAfterGap = new TreeSet<>();
+    private long gapSince;
+    private boolean started;
+
+    @Autowired
+    public UserChangeRelay(JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           ApplicationEventPublisher eventPublisher,
+                           EntityManagerFactory entityManagerFactory,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.invalidation.enabled:true}") boolean enabled,
+                           @Value("${app.invalidation.poll-interval:1s}") Duration pollInterval,
+                           @Value("${app.invalidation.batch-size:500}") int batchSize,
+                           @Value("${app.invalidation.gap-timeout:10s}") Duration gapTimeout,
+                           @Value("${app.invalidation.retention:1h}") Duration retention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.entityManagerFactory = entityManagerFactory;
+        this.enabled = enabled;
+        this.pollInterval = pollInterval;
+        this.batchSize = batchSize;
+        this.gapTimeoutNanos = gapTimeout.toNanos();
+        this.retention = retention;
+
+        this.publishedCounter = Counter.builder("users.changes.published")
+                .description("User changes of this instance written to the user_changes table")
+                .register(meterRegistry);
+        this.receivedCounter = Counter.builder("users.changes.received")
+                .description("User changes of other instances applied here")
+                .register(meterRegistry);
+        this.writeFailureCounter = failureCounter(meterRegistry, "write");
+        this.pollFailureCounter = failureCounter(meterRegistry, "poll");
+        this.lagTimer = Timer.builder("users.changes.lag")
+                .description("Time from a user change being logged by another instance to being applied here")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static Counter failureCounter(MeterRegistry meterRegistry, String operation) {
+        return Counter.builder("users.changes.failures")
+                .description("Failed writes to or polls of the user_changes table")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return The id this instance writes its changes under.
+     */
+    public String nodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Creates the table if needed and starts polling from its current end: the caches of a
+     * starting instance are empty, so older changes don't matter to it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || started) {
+            return;
+        }
+        started = true;
+        jdbcTemplate.execute(CREATE_TABLE);
+        lastId = jdbcTemplate.queryForObject(SELECT_LAST_ID, Long.class);
+        relayThread.scheduleWithFixedDelay(this::poll, pollInterval.toMillis(), pollInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+        relayThread.scheduleWithFixedDelay(this::purge, PURGE_INTERVAL.toMillis(), PURGE_INTERVAL.toMillis(),
+                TimeUnit.MILLISECONDS);
+        log.info("Relaying user changes as node {} every {} ms, starting after change {}",
+                nodeId, pollInterval.toMillis(), lastId);
+    }
+
+    /**
+     * Logs a change made by this instance, on the relay thread: after the commit of the transaction that
+     * made it, together with the other changes of that transaction, or right away outside of a transaction.
+     * Rolled-back changes are never logged.
+     *
+     * @param event The change that happened.
+     */
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (!enabled || event.remote()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            submit(List.of(event));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<UserChangedEvent> pending = (List<UserChangedEvent>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<UserChangedEvent> changes = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit(changes);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(UserChangeRelay.this);
+                }
+            });
+            pending = changes;
+        }
+        pending.add(event);
+    }
+
+    private void submit(List<UserChangedEvent> events) {
+        Timestamp now = Timestamp.from(Instant.now());
+        try {
+            relayThread.execute(() -> write(events, now));
+        } catch (RejectedExecutionException e) {
+            // Shutting down; the other instances drop their copies when their caches expire.
+            writeFailureCounter.increment();
+            log.warn("Could not log {} user changes for the other instances, shutting down", events.size());
+        }
+    }
+
+    private void write(List<UserChangedEvent> events, Timestamp now) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(INSERT, events, events.size(), (statement, event) -> {
+                        statement.setString(1, nodeId);
+                        statement.setLong(2, event.id());
+                        statement.setString(3, event.username());
+                        statement.setString(4, event.previousUsername());
+                        statement.setString(5, event.role());
+                        statement.setString(6, event.type().name());
+                        statement.setTimestamp(7, now);
+                    }));
+            publishedCounter.increment(events.size());
+        } catch (RuntimeException e) {
+            // The change itself is committed; other instances still drop their copies when their caches expire.
+            writeFailureCounter.increment();
+            log.warn("Could not log {} user changes for the other instances", events.size(), e);
+        }
+    }
+
+    /**
+     * Reads the changes logged since the last poll and applies those of other instances.
+     */
+    void poll() {
+        try {
+            List<Change> changes;
+            do {
+                changes = jdbcTemplate.query(SELECT_AFTER, (rs, rowNum) -> new Change(
+                        rs.getLong("id"),
+                        rs.getString("node_id"),
+                        UserChangedEvent.remote(rs.getLong("user_id"), rs.getString("username"),
+                                rs.getString("previous_username"), rs.getString("role"),
+                                UserChangedEvent.Type.valueOf(rs.getString("change_type")),
+                                rs.getTimestamp("created_at").toInstant())), lastId, batchSize);
+                for (Change change : changes) {
+                    // Changes after a gap are read again until the gap is closed; apply them only once.
+                    if (seenAfterGap.add(change.id()) && !change.nodeId().equals(nodeId)) {
+                        apply(change);
+                    }
+                }
+            } while (advance() && changes.size() == batchSize);
+        } catch (RuntimeException e) {
+            pollFailureCounter.increment();
+            log.warn("Could not poll the user changes of the other instances", e);
+        }
+    }
+
+    /**
+     * Moves lastId over the changes seen without a gap, or over a gap that has been open too long.
+     *
+     * @return Whether lastId moved.
+     */
+    private boolean advance() {
+        long before = lastId;
+        while (!seenAfterGap.isEmpty()) {
+            if (seenAfterGap.first() == lastId + 1) {
+                lastId = seenAfterGap.pollFirst();
+                gapSince = 0;
+            } else if (gapSince == 0) {
+                gapSince = System.nanoTime();
+                break;
+            } else if (System.nanoTime() - gapSince > gapTimeoutNanos) {
+                log.debug("Skipping user changes {} to {}, never committed", lastId + 1, seenAfterGap.first() - 1);
+                lastId = seenAfterGap.first() - 1;
+                gapSince = 0;
+            } else {
+                break;
+            }
+        }
+        return lastId != before;
+    }
+
+    private void apply(Change change) {
+        UserChangedEvent event = change.event();
+        // Hibernate's second-level cache is local too.
+        entityManagerFactory.getCache().evict(User.class, event.id());
+        if (event.type() != UserChangedEvent.Type.CREATED) {
+            entityManagerFactory.unwrap(SessionFactory.class).getCache().evictNaturalIdData(User.class);
+        }
+        eventPublisher.publishEvent(event);
+        receivedCounter.increment();
+        lagTimer.record(Duration.between(event.changedAt(), Instant.now()).abs());
+    }
+
+    private void purge() {
+        try {
+            jdbcTemplate.update(PURGE, Timestamp.from(Instant.now().minus(retention)));
+        } catch (RuntimeException e) {
+            log.warn("Could not delete old user changes", e);
+        }
+    }
+
+    /**
+     * Stops polling, after writing the changes still waiting to be logged.
+     */
+    @PreDestroy
+    public void close() throws InterruptedException {
+        relayThread.shutdown();
+        if (!relayThread.awaitTermination(5, TimeUnit.SECONDS)) {
+            relayThread.shutdownNow();
+        }
+    }
+}
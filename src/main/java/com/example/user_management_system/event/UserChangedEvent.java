@@ -0,0 +1,44 @@
+package com.example.user_management_system.event;
+
+import java.time.Instant;
+
+/**
+ * Application event published whenever a row in the "users" table is inserted,
+ * updated or deleted.
+ *
+ * Components that keep in-process state derived from users (for example the
+ * authentication cache) listen for this event to evict stale entries. Changes made
+ * by other instances of the application are published too, by the UserChangeRelay,
+ * with remote set to true.
+ *
+ * @param id               The primary key of the changed user.
+ * @param username         The username after the change.
+ * @param previousUsername The username as it was loaded from the database, or null for new users.
+ * @param role             The role after the change.
+ * @param type             The kind of change that happened.
+ * @param remote           Whether the change was made by another instance of the application.
+ * @param changedAt        For a remote change, when the other instance logged it after its commit; null for a
+ *                         change made by this instance, which listeners see as it commits.
+ */
+public record UserChangedEvent(Long id, String username, String previousUsername, String role, Type type,
+                               boolean remote, Instant changedAt) {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    /**
+     * A change made by this instance.
+     */
+    public UserChangedEvent(Long id, String username, String previousUsername, String role, Type type) {
+        this(id, username, previousUsername, role, type, false, null);
+    }
+
+    /**
+     * A change made by another instance of the application.
+     */
+    public static UserChangedEvent remote(Long id, String username, String previousUsername, String role, Type type,
+                                          Instant changedAt) {
+        return new UserChangedEvent(id, username, previousUsername, role, type, true, changedAt);
+    }
+}
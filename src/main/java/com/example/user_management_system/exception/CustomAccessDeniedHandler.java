@@ -1,48 +1,63 @@
 package com.example.user_management_system.exception;
 
+import com.example.user_management_system.event.AuditEvent;
+import com.example.user_management_system.service.AuditService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.web.access.AccessDeniedHandler;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
  * Custom handler for AccessDeniedException.
  * This class is responsible for creating a custom JSON response when a user
  * is authenticated but does not have the necessary permissions to access a resource.
+ * The body is a JsonErrorBody, so only the path is encoded per denial.
+ * Every 403 is also counted in the "security.rejected" counter and recorded in the audit journal.
  *
  * @Component marks this class as a Spring component so it can be injected.
  */
 @Component
 public class CustomAccessDeniedHandler implements AccessDeniedHandler {
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JsonErrorBody body;
+    private final Counter rejectedCounter;
+    private final AuditService auditService;
+
+    @Autowired
+    public CustomAccessDeniedHandler(ObjectMapper objectMapper, MeterRegistry meterRegistry, AuditService auditService) {
+        // Everything but the path is the same for every denial, so it is encoded once.
+        Map<String, Object> constantFields = new LinkedHashMap<>();
+        constantFields.put("status", HttpStatus.FORBIDDEN.value());
+        constantFields.put("error", "Access Denied");
+        constantFields.put("message", "You do not have the required permissions to access this resource.");
+        this.body = JsonErrorBody.withVariableField(objectMapper, constantFields, "path");
+        this.rejectedCounter = Counter.builder("security.rejected")
+                .description("Requests rejected by the security filter chain")
+                .tag("status", "403")
+                .register(meterRegistry);
+        this.auditService = auditService;
+    }
 
     @Override
     public void handle(HttpServletRequest request,
                        HttpServletResponse response,
                        AccessDeniedException accessDeniedException) throws IOException, ServletException {
+        rejectedCounter.increment();
+        auditService.record(AuditEvent.Type.ACCESS_DENIED, request.getRemoteUser(),
+                request.getMethod() + " " + request.getServletPath(), request.getRemoteAddr());
 
-        // Set the response status to 403 Forbidden
-        response.setStatus(HttpStatus.FORBIDDEN.value());
-        // Set the content type to application/json
-        response.setContentType("application/json");
-
-        // Create the JSON response body
-        Map<String, Object> body = new HashMap<>();
-        body.put("status", HttpStatus.FORBIDDEN.value());
-        body.put("error", "Access Denied");
-        body.put("message", "You do not have the required permissions to access this resource.");
-        body.put("path", request.getServletPath());
-
-        // Write the JSON response to the output stream
-        response.getOutputStream().println(objectMapper.writeValueAsString(body));
+        // Write 403 Forbidden with the pre-encoded JSON body, filling in only the path
+        body.write(response, HttpStatus.FORBIDDEN.value(), request.getServletPath());
     }
 }
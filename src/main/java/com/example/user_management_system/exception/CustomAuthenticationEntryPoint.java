@@ -0,0 +1,59 @@
+package com.example.user_management_system.exception;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.AuthenticationEntryPoint;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Answers requests without valid credentials with 401 Unauthorized and an HTTP Basic challenge.
+ *
+ * The JSON body is written directly from a JsonErrorBody, like the 403 body of
+ * CustomAccessDeniedHandler, instead of going through the servlet container's error page,
+ * which would run the whole filter chain a second time for every bad password.
+ * Every 401 is also counted in the "security.rejected" counter.
+ *
+ * @Component marks this class as a Spring component so it can be injected.
+ */
+@Component
+public class CustomAuthenticationEntryPoint implements AuthenticationEntryPoint {
+
+    // The realm Spring Security uses for HTTP Basic by default.
+    private static final String CHALLENGE = "Basic realm=\"Realm\"";
+
+    private final JsonErrorBody body;
+    private final Counter rejectedCounter;
+
+    @Autowired
+    public CustomAuthenticationEntryPoint(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        Map<String, Object> constantFields = new LinkedHashMap<>();
+        constantFields.put("status", HttpStatus.UNAUTHORIZED.value());
+        constantFields.put("error", "Unauthorized");
+        constantFields.put("message", "Full authentication is required to access this resource.");
+        this.body = JsonErrorBody.withVariableField(objectMapper, constantFields, "path");
+        this.rejectedCounter = Counter.builder("security.rejected")
+                .description("Requests rejected by the security filter chain")
+                .tag("status", "401")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void commence(HttpServletRequest request,
+                         HttpServletResponse response,
+                         AuthenticationException authException) throws IOException {
+        rejectedCounter.increment();
+        response.setHeader(HttpHeaders.WWW_AUTHENTICATE, CHALLENGE);
+        body.write(response, HttpStatus.UNAUTHORIZED.value(), request.getServletPath());
+    }
+}
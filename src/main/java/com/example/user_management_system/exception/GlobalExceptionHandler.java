@@ -1,5 +1,10 @@
 package com.example.user_management_system.exception;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -8,10 +13,12 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -20,10 +27,46 @@ import java.util.stream.Collectors;
  * A global exception handler for the application.
  *
  * @ControllerAdvice allows this class to be shared across all @Controllers to handle exceptions.
+ * Every 409 Conflict it returns is counted in the "users.conflicts" counter, tagged with its cause.
+ *
+ * Bodies come from JsonErrorBody templates and are written straight to the response: constant
+ * bodies are encoded once at startup, and only messages that vary are encoded per response.
+ * They don't go through the message converters, where the ObjectMapper would serialize them again.
  */
 @ControllerAdvice
 public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 
+    private final JsonErrorBody validationBody;
+    private final JsonErrorBody conflictBody;
+    private final byte[] usernameTakenBody;
+    private final byte[] emailTakenBody;
+    private final byte[] constraintViolatedBody;
+    private final JsonErrorBody hashingOverloadBody;
+    private final Counter usernameTakenCounter;
+    private final Counter constraintViolationCounter;
+
+    @Autowired
+    public GlobalExceptionHandler(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        // MethodArgumentNotValidException always means 400 Bad Request.
+        this.validationBody = JsonErrorBody.withVariableField(objectMapper,
+                Map.of("status", HttpStatus.BAD_REQUEST.value()), "errors");
+        this.conflictBody = JsonErrorBody.withVariableField(objectMapper,
+                Map.of("status", HttpStatus.CONFLICT.value()), "error");
+        this.usernameTakenBody = conflictBody.render("This username is already taken.");
+        this.emailTakenBody = conflictBody.render("This email is already registered.");
+        this.constraintViolatedBody = conflictBody.render("A database constraint was violated.");
+        this.hashingOverloadBody = JsonErrorBody.withVariableField(objectMapper,
+                Map.of("status", HttpStatus.SERVICE_UNAVAILABLE.value()), "error");
+        this.usernameTakenCounter = Counter.builder("users.conflicts")
+                .description("Requests answered with 409 Conflict")
+                .tag("reason", "username-taken")
+                .register(meterRegistry);
+        this.constraintViolationCounter = Counter.builder("users.conflicts")
+                .description("Requests answered with 409 Conflict")
+                .tag("reason", "constraint-violation")
+                .register(meterRegistry);
+    }
+
     /**
      * Handles validation errors from @Valid annotation.
      * This method is automatically called when a validation rule is violated.
@@ -32,16 +75,13 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
      * @param headers The HTTP headers.
      * @param status  The HTTP status.
      * @param request The current web request.
-     * @return A ResponseEntity with a structured error message.
+     * @return null, as the structured error message has already been written to the response.
      */
     @Override
     protected ResponseEntity<Object> handleMethodArgumentNotValid(MethodArgumentNotValidException ex,
                                                                   HttpHeaders headers,
                                                                   HttpStatusCode status,
                                                                   WebRequest request) {
-        Map<String, Object> body = new HashMap<>();
-        body.put("status", status.value());
-
         // Get all validation errors
         List<String> errors = ex.getBindingResult()
                 .getFieldErrors()
@@ -49,23 +89,28 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
                 .map(x -> x.getDefaultMessage())
                 .collect(Collectors.toList());
 
-        body.put("errors", errors);
-
-        return new ResponseEntity<>(body, headers, status);
+        HttpServletResponse response = ((ServletWebRequest) request).getResponse();
+        headers.forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+        try {
+            JsonErrorBody.write(response, status.value(), validationBody.render(errors));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return null;
     }
 
     /**
      * Handles our custom ResourceConflictException.
      *
-     * @param ex The exception thrown.
-     * @return A ResponseEntity with a structured error message.
+     * @param ex       The exception thrown.
+     * @param response The response the structured error message is written to.
+     * @throws IOException if writing the response fails.
      */
     @ExceptionHandler(ResourceConflictException.class)
-    public ResponseEntity<Object> handleResourceConflictException(ResourceConflictException ex) {
-        Map<String, Object> body = new HashMap<>();
-        body.put("status", HttpStatus.CONFLICT.value());
-        body.put("error", ex.getMessage());
-        return new ResponseEntity<>(body, HttpStatus.CONFLICT);
+    public void handleResourceConflictException(ResourceConflictException ex,
+                                                HttpServletResponse response) throws IOException {
+        usernameTakenCounter.increment();
+        conflictBody.write(response, HttpStatus.CONFLICT.value(), ex.getMessage());
     }
 
     /**
@@ -73,25 +118,40 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
      * This is triggered when a unique constraint (e.g., for username or email) is violated
      * at the database level.
      *
-     * @param ex The exception thrown by the database.
-     * @return A ResponseEntity with a user-friendly error message.
+     * @param ex       The exception thrown by the database.
+     * @param response The response the user-friendly error message is written to.
+     * @throws IOException if writing the response fails.
      */
     @ExceptionHandler(DataIntegrityViolationException.class)
-    public ResponseEntity<Object> handleDataIntegrityViolation(DataIntegrityViolationException ex) {
-        Map<String, Object> body = new HashMap<>();
-        body.put("status", HttpStatus.CONFLICT.value());
+    public void handleDataIntegrityViolation(DataIntegrityViolationException ex,
+                                             HttpServletResponse response) throws IOException {
+        constraintViolationCounter.increment();
 
         // Provide a more specific message if possible
-        if (ex.getMostSpecificCause().getMessage().contains("users_username_key")) {
-            body.put("error", "This username is already taken.");
-        } else if (ex.getMostSpecificCause().getMessage().contains("users_email_key")) {
-            body.put("error", "This email is already registered.");
+        String cause = ex.getMostSpecificCause().getMessage();
+        byte[] body;
+        if (cause.contains("users_username_key")) {
+            body = usernameTakenBody;
+        } else if (cause.contains("users_email_key")) {
+            body = emailTakenBody;
         } else {
-            body.put("error", "A database constraint was violated.");
+            body = constraintViolatedBody;
         }
-
-        return new ResponseEntity<>(body, HttpStatus.CONFLICT);
+        JsonErrorBody.write(response, HttpStatus.CONFLICT.value(), body);
     }
 
-
-}
\ No newline at end of file
+    /**
+     * Handles a saturated password hashing pool.
+     * Returns 503 Service Unavailable with a Retry-After header, so clients back off and retry later.
+     *
+     * @param ex       The exception thrown.
+     * @param response The response the structured error message is written to.
+     * @throws IOException if writing the response fails.
+     */
+    @ExceptionHandler(HashingCapacityExceededException.class)
+    public void handleHashingCapacityExceeded(HashingCapacityExceededException ex,
+                                              HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()));
+        hashingOverloadBody.write(response, HttpStatus.SERVICE_UNAVAILABLE.value(), ex.getMessage());
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.user_management_system.exception;
+
+/**
+ * Thrown when the password hashing pool is saturated and can't accept more work.
+ * It is turned into a 503 Service Unavailable response with a Retry-After header,
+ * so clients back off instead of piling up threads.
+ */
+public class HashingCapacityExceededException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public HashingCapacityExceededException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.user_management_system.exception;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A JSON error body whose constant fields are encoded once, up front.
+ *
+ * Error responses are the hottest code during an attack or a retry storm, and building a Map and
+ * running it through an ObjectMapper for every one of them costs far more than the few bytes that
+ * actually change. A JsonErrorBody keeps the encoded bytes of the constant fields, and only the
+ * one variable field (a string or a list of strings, always the last field) is escaped and written
+ * per response. Bodies without a variable field are plain byte arrays from {@link #encode}.
+ */
+public final class JsonErrorBody {
+
+    private static final JsonStringEncoder ENCODER = JsonStringEncoder.getInstance();
+
+    private final byte[] prefix;
+
+    private JsonErrorBody(byte[] prefix) {
+        this.prefix = prefix;
+    }
+
+    /**
+     * Encodes a body made only of constant fields.
+     *
+     * @param objectMapper The application's ObjectMapper.
+     * @param fields       The fields, in the order they should appear.
+     * @return The encoded JSON.
+     */
+    public static byte[] encode(ObjectMapper objectMapper, Map<String, ?> fields) {
+        try {
+            return objectMapper.writeValueAsBytes(fields);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Error body fields can't be written as JSON", e);
+        }
+    }
+
+    /**
+     * Prepares a body made of constant fields followed by one variable field.
+     *
+     * @param objectMapper   The application's ObjectMapper.
+     * @param constantFields The constant fields, in the order they should appear.
+     * @param variableField  The name of the last field, whose value is given per response.
+     * @return The template.
+     */
+    public static JsonErrorBody withVariableField(ObjectMapper objectMapper, Map<String, ?> constantFields,
+                                                  String variableField) {
+        byte[] constant = encode(objectMapper, constantFields);
+        ByteArrayOutputStream prefix = new ByteArrayOutputStream();
+        // Drop the closing brace and append the variable field's name.
+        prefix.write(constant, 0, constant.length - 1);
+        if (!constantFields.isEmpty()) {
+            prefix.write(',');
+        }
+        prefix.write('"');
+        prefix.writeBytes(ENCODER.quoteAsUTF8(variableField));
+        prefix.writeBytes(new byte[]{'"', ':'});
+        return new JsonErrorBody(prefix.toByteArray());
+    }
+
+    /**
+     * @param value The value of the variable field.
+     * @return The complete JSON body.
+     */
+    public byte[] render(String value) {
+        byte[] quoted = ENCODER.quoteAsUTF8(value == null ? "" : value);
+        byte[] body = Arrays.copyOf(prefix, prefix.length + quoted.length + 3);
+        int offset = prefix.length;
+        body[offset++] = '"';
+        System.arraycopy(quoted, 0, body, offset, quoted.length);
+        offset += quoted.length;
+        body[offset++] = '"';
+        body[offset] = '}';
+        return body;
+    }
+
+    /**
+     * @param values The values of the variable field, written as a JSON array of strings.
+     * @return The complete JSON body.
+     */
+    public byte[] render(List<String> values) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(prefix.length + 32 * values.size() + 3);
+        body.writeBytes(prefix);
+        body.write('[');
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                body.write(',');
+            }
+            body.write('"');
+            body.writeBytes(ENCODER.quoteAsUTF8(values.get(i) == null ? "" : values.get(i)));
+            body.write('"');
+        }
+        body.write(']');
+        body.write('}');
+        return body.toByteArray();
+    }
+
+    /**
+     * Writes the body with the given value straight to a servlet response, without first
+     * copying it into one array.
+     *
+     * @param response The response to write to.
+     * @param status   The HTTP status to set.
+     * @param value    The value of the variable field.
+     * @throws IOException if writing fails.
+     */
+    public void write(HttpServletResponse response, int status, String value) throws IOException {
+        byte[] quoted = ENCODER.quoteAsUTF8(value == null ? "" : value);
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(prefix.length + quoted.length + 3);
+        ServletOutputStream out = response.getOutputStream();
+        out.write(prefix);
+        out.write('"');
+        out.write(quoted);
+        out.write('"');
+        out.write('}');
+    }
+
+    /**
+     * Writes a JSON body straight to a servlet response, for handlers that run outside Spring MVC.
+     *
+     * @param response The response to write to.
+     * @param status   The HTTP status to set.
+     * @param body     The encoded JSON body.
+     * @throws IOException if writing fails.
+     */
+    public static void write(HttpServletResponse response, int status, byte[] body) throws IOException {
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        ServletOutputStream out = response.getOutputStream();
+        out.write(body);
+    }
+}
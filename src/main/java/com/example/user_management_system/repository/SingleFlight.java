@@ -0,0 +1,160 @@
+package com.example.user_management_system.repository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Coalesces concurrent identical lookups: while a lookup of a key is running, callers asking for the
+ * same key wait for it and share its result instead of running the same query again.
+ *
+ * The first caller of a key (the leader) runs the lookup on its own thread. The others (followers) wait
+ * at most the given timeout for it. A lookup that fails fails for every caller with the same exception;
+ * a follower that times out gets a QueryTimeoutException, while the lookup goes on for the leader.
+ * Nothing is cached: once a lookup is done, the next caller starts a new one.
+ *
+ * For each lookup method, meters tagged with "method" count the lookups run ("users.lookups.executed"),
+ * the lookups shared ("users.lookups.shared") and the followers that timed out ("users.lookups.shared.timeouts").
+ * "users.lookups.callers" records the number of callers served per lookup run, and "users.lookups.in.flight"
+ * the number of lookups running.
+ *
+ * @param <K> The type of the lookup key.
+ * @param <V> The type of the lookup result.
+ */
+class SingleFlight<K, V> {
+
+    /**
+     * A running lookup and the number of callers waiting for it, the leader included.
+     */
+    private record Flight<V>(CompletableFuture<V> result, AtomicInteger callers) {
+    }
+
+    private final String method;
+    private final long timeoutNanos;
+    private final ConcurrentMap<K, Flight<V>> flights = new ConcurrentHashMap<>();
+    private final Counter executedCounter;
+    private final Counter sharedCounter;
+    private final Counter timeoutCounter;
+    private final DistributionSummary callersSummary;
+
+    /**
+     * @param method        The name of the lookup method, used as the "method" tag of the meters.
+     * @param timeout       How long followers wait for a running lookup.
+     * @param meterRegistry The registry of the meters.
+     */
+    SingleFlight(String method, Duration timeout, MeterRegistry meterRegistry) {
+        this.method = method;
+        this.timeoutNanos = timeout.toNanos();
+        this.executedCounter = Counter.builder("users.lookups.executed")
+                .description("Lookups run against the database")
+                .tag("method", method)
+                .register(meterRegistry);
+        this.sharedCounter = Counter.builder("users.lookups.shared")
+                .description("Lookups answered by waiting for an identical running lookup")
+                .tag("method", method)
+                .register(meterRegistry);
+        this.timeoutCounter = Counter.builder("users.lookups.shared.timeouts")
+                .description("Callers that gave up waiting for an identical running lookup")
+                .tag("method", method)
+                .register(meterRegistry);
+        this.callersSummary = DistributionSummary.builder("users.lookups.callers")
+                .description("Callers served by one lookup run against the database")
+                .tag("method", method)
+                .register(meterRegistry);
+        Gauge.builder("users.lookups.in.flight", flights, ConcurrentMap::size)
+                .description("Lookups running against the database")
+                .tag("method", method)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs the lookup of the given key, or waits for the one already running.
+     *
+     * @param key    The key to look up.
+     * @param lookup The lookup, run only by the leader.
+     * @param share  Turns the leader's result into the one handed to a follower, for example a copy
+     *               of a mutable object.
+     * @return The result of the lookup.
+     */
+    V execute(K key, Supplier<V> lookup, UnaryOperator<V> share) {
+        Flight<V> mine = new Flight<>(new CompletableFuture<>(), new AtomicInteger(1));
+        Flight<V> running = flights.putIfAbsent(key, mine);
+        if (running == null) {
+            return lead(key, mine, lookup);
+        }
+        running.callers().incrementAndGet();
+        return share.apply(follow(key, running));
+    }
+
+    private V lead(K key, Flight<V> flight, Supplier<V> lookup) {
+        executedCounter.increment();
+        try {
+            V value = lookup.get();
+            flight.result().complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.result().completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(key, flight);
+            // Followers that join from here on are still served, but not counted.
+            callersSummary.record(flight.callers().get());
+        }
+    }
+
+    private V follow(K key, Flight<V> flight) {
+        try {
+            V value = flight.result().get(timeoutNanos, TimeUnit.NANOSECONDS);
+            sharedCounter.increment();
+            return value;
+        } catch (ExecutionException e) {
+            sharedCounter.increment();
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new DataRetrievalFailureException("Lookup " + method + " failed", e.getCause());
+        } catch (TimeoutException e) {
+            timeoutCounter.increment();
+            throw new QueryTimeoutException("Timed out waiting for the running lookup " + method + " of " + key, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataRetrievalFailureException("Interrupted waiting for the running lookup " + method, e);
+        }
+    }
+
+    /**
+     * @param key The key to look up.
+     * @return The number of callers of the running lookup of the key, the leader included, or 0 if none is running.
+     */
+    int callers(K key) {
+        Flight<V> flight = flights.get(key);
+        return flight == null ? 0 : flight.callers().get();
+    }
+
+    /**
+     * Stops sharing the running lookup of the given key, if any: callers from now on start a new one.
+     * Used when the data behind the key changed, so no caller gets a result read before the change.
+     *
+     * @param key The key whose data changed.
+     */
+    void forget(K key) {
+        flights.remove(key);
+    }
+}
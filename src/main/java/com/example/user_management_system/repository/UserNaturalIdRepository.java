@@ -0,0 +1,24 @@
+package com.example.user_management_system.repository;
+
+import com.example.user_management_system.entity.User;
+
+import java.util.Optional;
+
+/**
+ * Lookups of users by their natural id, the username.
+ *
+ * UserRepository extends this interface, and Spring Data uses UserNaturalIdRepositoryImpl for its
+ * methods instead of deriving a query from the method name.
+ */
+public interface UserNaturalIdRepository {
+
+    /**
+     * Finds a user by their username.
+     * The username is resolved to an id through Hibernate's natural-id cache and the user is then
+     * read from the second-level cache, so a cached user costs no database round trip.
+     *
+     * @param username The username to search for.
+     * @return An Optional containing the User if found, or an empty Optional otherwise.
+     */
+    Optional<User> findByUsername(String username);
+}
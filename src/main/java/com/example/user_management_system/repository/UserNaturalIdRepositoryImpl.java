@@ -0,0 +1,88 @@
+package com.example.user_management_system.repository;
+
+import com.example.user_management_system.entity.User;
+import com.example.user_management_system.event.UserChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Implements UserNaturalIdRepository with Hibernate's natural-id API.
+ *
+ * Like the finders of SimpleJpaRepository, the lookups run in a read-only transaction, so the
+ * unwrapped Session stays open for the duration of the call.
+ *
+ * Concurrent lookups of the same username are coalesced (see SingleFlight): when a popular user
+ * is not in the second-level cache, for example after a deploy, one query is run for all of them
+ * instead of one query and one pooled connection per caller. Callers that are already in a
+ * transaction are not coalesced, since they expect a user attached to their own persistence context.
+ */
+class UserNaturalIdRepositoryImpl implements UserNaturalIdRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate readOnlyTransaction;
+    private final SingleFlight<String, Optional<User>> usernameLookups;
+    private final boolean coalescing;
+
+    @Autowired
+    UserNaturalIdRepositoryImpl(PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.lookup.coalescing.enabled:true}") boolean coalescing,
+                                @Value("${app.lookup.coalescing.timeout:5s}") Duration timeout) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        this.usernameLookups = new SingleFlight<>("findByUsername", timeout, meterRegistry);
+        this.coalescing = coalescing;
+    }
+
+    @Override
+    public Optional<User> findByUsername(String username) {
+        if (username == null) {
+            return Optional.empty();
+        }
+        if (!coalescing || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return loadByUsername(username);
+        }
+        // Followers get their own copy, so one caller changing its user doesn't change the others'.
+        return usernameLookups.execute(username, () -> loadByUsername(username),
+                user -> user.map(UserNaturalIdRepositoryImpl::copy));
+    }
+
+    private Optional<User> loadByUsername(String username) {
+        return readOnlyTransaction.execute(status -> entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(User.class)
+                .loadOptional(username));
+    }
+
+    private static User copy(User user) {
+        User copy = new User(user.getId(), user.getUsername(), user.getPassword(), user.getRole());
+        copy.setLoadedUsername(user.getLoadedUsername());
+        return copy;
+    }
+
+    /**
+     * Once a change to a user is committed, later lookups of their username no longer share a
+     * lookup that may have read the user before the change.
+     *
+     * @param event The change that happened.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        usernameLookups.forget(event.username());
+        if (event.previousUsername() != null) {
+            usernameLookups.forget(event.previousUsername());
+        }
+    }
+}
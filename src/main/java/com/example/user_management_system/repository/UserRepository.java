@@ -1,31 +1,102 @@
 package com.example.user_management_system.repository;
 
+import com.example.user_management_system.dto.UserView;
 import com.example.user_management_system.entity.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.rest.core.annotation.RestResource;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Spring Data JPA repository for the User entity.
  *
  * This interface extends JpaRepository, which provides a rich set of CRUD (Create, Read, Update, Delete)
- * operations for the User entity out of the box.
+ * operations for the User entity out of the box. findByUsername comes from UserNaturalIdRepository,
+ * which reads users by username through Hibernate's natural-id cache.
  *
  * @Repository annotation marks this interface as a Spring component, making it eligible for
  * dependency injection.
  */
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserNaturalIdRepository {
 
     /**
-     * Custom query method to find a user by their username.
-     * Spring Data JPA automatically implements this method based on its name.
-     * "findByUsername" translates to a "SELECT * FROM users WHERE username = ?" query.
+     * Finds which of the given usernames are already taken, in a single query.
+     * Used by the bulk import to check a whole chunk of rows at once instead of
+     * calling findByUsername once per row.
      *
-     * @param username The username to search for.
-     * @return An Optional containing the User if found, or an empty Optional otherwise.
-     * Using Optional is a good practice to handle cases where a user might not exist.
+     * @param usernames The usernames to check.
+     * @return The subset of the given usernames that exist in the database.
      */
-    Optional<User> findByUsername(String username);
+    @Query("select u.username from User u where u.username in :usernames")
+    Set<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    /**
+     * Reads the next page of users after the given id, ordered by id (keyset pagination).
+     * Unlike offset paging, the cost of a page doesn't grow with how deep into the table it is,
+     * because the database can seek straight to "id > afterId" on the primary key index.
+     * Only the id, username and role columns are selected.
+     *
+     * @param afterId The last id of the previous page, or 0 for the first page.
+     * @param limit   The maximum number of users to return.
+     * @return Up to limit users with an id greater than afterId.
+     */
+    @Query("select new com.example.user_management_system.dto.UserView(u.id, u.username, u.role) "
+            + "from User u where u.id > :afterId order by u.id")
+    List<UserView> findViewsAfter(@Param("afterId") long afterId, Limit limit);
+
+    /**
+     * Reads one user without the password column, for responses that show a user.
+     *
+     * @param id The primary key of the user.
+     * @return The user's view, or an empty Optional if there is no such user.
+     */
+    @Query("select new com.example.user_management_system.dto.UserView(u.id, u.username, u.role) "
+            + "from User u where u.id = :id")
+    Optional<UserView> findViewById(@Param("id") Long id);
+
+    /**
+     * Inserts a user unless the username is already taken, in a single statement.
+     * This replaces the findByUsername-then-save pattern: there is one round trip instead of two,
+     * and the check can't race with another insert because the unique constraint decides.
+     * The id comes from the same sequence Hibernate uses (see User.id).
+     * Not exported by Spring Data REST: it writes, so it must not be reachable as a GET search.
+     *
+     * @param username The username of the new user.
+     * @param password The already encoded password.
+     * @param role     The role of the new user.
+     * @return The id of the new user, or an empty Optional if the username was taken.
+     */
+    @RestResource(exported = false)
+    @Transactional
+    @Query(value = "INSERT INTO users (id, username, password, role) "
+            + "VALUES (nextval('users_seq'), :username, :password, :role) "
+            + "ON CONFLICT (username) DO NOTHING RETURNING id", nativeQuery = true)
+    Optional<Long> insertIfAbsent(@Param("username") String username,
+                                  @Param("password") String password,
+                                  @Param("role") String role);
+
+    /**
+     * Replaces the stored password hash of a user, without loading the entity.
+     * Used to upgrade outdated hashes after a successful login.
+     * Not exported by Spring Data REST, for the same reason as insertIfAbsent.
+     *
+     * @param username The user whose hash is replaced.
+     * @param password The new, already encoded password.
+     * @return The number of updated rows (0 if the user doesn't exist).
+     */
+    @RestResource(exported = false)
+    @Transactional
+    @Modifying
+    @Query("update User u set u.password = :password where u.username = :username")
+    int updatePassword(@Param("username") String username, @Param("password") String password);
 }
@@ -0,0 +1,251 @@
+package com.example.user_management_system.security;
+
+import com.example.user_management_system.event.UserChangedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Issues and checks short-lived, HMAC-signed access tokens.
+ *
+ * A token is "payload.signature", both Base64url-encoded. The payload is a small JSON object with
+ * the username, the authorities, the issue and expiry times, and the id of the signing key. Checking
+ * a token is one HMAC over the payload, so requests that carry a token skip the database and BCrypt.
+ *
+ * Signing keys rotate: time is split into periods of key-rotation length, and the key of a period
+ * is derived from a master secret and the period number. New tokens are signed with the key of the
+ * current period; older keys are accepted as long as tokens signed with them can still be valid.
+ * Nodes configured with the same secret derive the same keys, so they accept each other's tokens.
+ *
+ * A token can't be recalled once issued, so changes to a user revoke the tokens issued to that user
+ * before the change. Only the username and the time of the change are kept, and only for one
+ * token lifetime, after which every token issued before the change has expired anyway. At most
+ * max-revoked-users usernames are kept; when one has to be dropped to make room, every token issued
+ * up to its change time is revoked instead, so a burst of changes can force extra logins but can
+ * never bring a revoked token back.
+ */
+public class AccessTokenService {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder BASE64 = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder BASE64_DECODER = Base64.getUrlDecoder();
+
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final long rotationMillis;
+    private final long acceptedKeyPeriods;
+    private final SecretKeySpec masterKey;
+    private final Clock clock;
+    private final Map<Long, SecretKeySpec> signingKeys = new ConcurrentHashMap<>();
+    private final Cache<String, Long> revokedBefore;
+    // Tokens issued at or before this time are revoked for everyone; raised when revokedBefore is full.
+    private final AtomicLong revokedAllBefore = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * @param objectMapper Writes and reads the token payload.
+     * @param ttl          How long a token is valid.
+     * @param keyRotation  How long each signing key is used to sign new tokens.
+     * @param secret       The master secret the signing keys are derived from; if blank, a random
+     *                     secret is used and tokens don't survive a restart.
+     * @param maxRevokedUsers The maximum number of usernames whose revocations are kept individually.
+     * @param clock        The source of the current time.
+     */
+    public AccessTokenService(ObjectMapper objectMapper, Duration ttl, Duration keyRotation, String secret,
+                              long maxRevokedUsers, Clock clock) {
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.rotationMillis = keyRotation.toMillis();
+        // A token signed at the very end of a period stays valid for one ttl into later periods.
+        this.acceptedKeyPeriods = (ttl.toMillis() + rotationMillis - 1) / rotationMillis;
+        byte[] secretBytes;
+        if (secret == null || secret.isBlank()) {
+            secretBytes = new byte[32];
+            new SecureRandom().nextBytes(secretBytes);
+        } else {
+            secretBytes = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        this.masterKey = new SecretKeySpec(secretBytes, HMAC_ALGORITHM);
+        this.clock = clock;
+        this.revokedBefore = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxRevokedUsers)
+                // Runs atomically with the eviction, so there is no moment where the revocation is lost.
+                .evictionListener((String username, Long revokedAt, RemovalCause cause) -> {
+                    if (cause == RemovalCause.SIZE) {
+                        revokedAllBefore.accumulateAndGet(revokedAt, Math::max);
+                    }
+                })
+                // Evict on the writing thread, so the map never holds much more than its maximum.
+                .executor(Runnable::run)
+                .build();
+    }
+
+    /**
+     * Issues a token for a user who has just proved their password.
+     *
+     * @param authentication The successful authentication.
+     * @return The signed token and when it expires.
+     */
+    public AccessToken issue(Authentication authentication) {
+        long now = clock.millis();
+        long period = Math.floorDiv(now, rotationMillis);
+        // Keys of periods that can no longer have valid tokens are not needed anymore.
+        signingKeys.keySet().removeIf(keyPeriod -> keyPeriod < period - acceptedKeyPeriods);
+
+        Claims claims = new Claims(period, authentication.getName(),
+                AuthorityUtils.authorityListToSet(authentication.getAuthorities()).stream().sorted().toList(),
+                now, now + ttl.toMillis());
+        try {
+            String payload = BASE64.encodeToString(objectMapper.writeValueAsBytes(claims));
+            String token = payload + "." + BASE64.encodeToString(sign(period, payload));
+            return new AccessToken(token, Instant.ofEpochMilli(claims.exp()));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not write the access token", e);
+        }
+    }
+
+    /**
+     * Checks a token and turns it into an authentication, without touching the database.
+     *
+     * @param token The token as sent by the client.
+     * @return The authenticated user, with the authorities stored in the token.
+     * @throws BadCredentialsException if the token is malformed, forged, expired or revoked.
+     */
+    public Authentication authenticate(String token) {
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot != token.lastIndexOf('.')) {
+            throw new BadCredentialsException("Malformed access token");
+        }
+        String payload = token.substring(0, dot);
+        Claims claims;
+        byte[] signature;
+        try {
+            claims = objectMapper.readValue(BASE64_DECODER.decode(payload), Claims.class);
+            signature = BASE64_DECODER.decode(token.substring(dot + 1));
+        } catch (IOException | IllegalArgumentException e) {
+            throw new BadCredentialsException("Malformed access token");
+        }
+
+        long now = clock.millis();
+        long currentPeriod = Math.floorDiv(now, rotationMillis);
+        // Checked before the signature, so forged key ids can't make us derive arbitrary keys.
+        if (claims.kid() > currentPeriod || claims.kid() < currentPeriod - acceptedKeyPeriods) {
+            throw new BadCredentialsException("Access token signed with an expired key");
+        }
+        if (!MessageDigest.isEqual(signature, sign(claims.kid(), payload))) {
+            throw new BadCredentialsException("Invalid access token signature");
+        }
+        if (claims.exp() <= now) {
+            throw new BadCredentialsException("Access token has expired");
+        }
+        Long revokedAt = revokedBefore.getIfPresent(claims.sub());
+        if (claims.iat() <= revokedAllBefore.get() || revokedAt != null && claims.iat() <= revokedAt) {
+            throw new BadCredentialsException("Access token has been revoked");
+        }
+
+        List<GrantedAuthority> authorities = AuthorityUtils.createAuthorityList(claims.roles());
+        return new PreAuthenticatedAuthenticationToken(claims.sub(), null, authorities);
+    }
+
+    /**
+     * Revokes every token issued to the given username until now.
+     *
+     * @param username The user whose tokens should stop working.
+     */
+    public void revoke(String username) {
+        revoke(username, clock.millis());
+    }
+
+    private void revoke(String username, long revokedAt) {
+        // A remote change can arrive after a later local one; keep the later time.
+        revokedBefore.asMap().merge(username, revokedAt, Math::max);
+    }
+
+    /**
+     * Revokes tokens once an update or delete of a user has been committed, so a changed role or
+     * password takes effect before the user's tokens expire. Renames revoke the old username too.
+     * A change relayed from another instance revokes the tokens issued before it arrived here, not just
+     * before it was made there: until it arrives, this instance's caches still hold the old user, so
+     * tokens issued in between may carry the old role or have been issued for the old password.
+     *
+     * @param event The change that happened.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.type() == UserChangedEvent.Type.CREATED) {
+            return;
+        }
+        long revokedAt = clock.millis();
+        if (event.changedAt() != null) {
+            // The other instance's clock may be ahead of this one's.
+            revokedAt = Math.max(event.changedAt().toEpochMilli(), revokedAt);
+        }
+        revoke(event.username(), revokedAt);
+        if (event.previousUsername() != null && !event.previousUsername().equals(event.username())) {
+            revoke(event.previousUsername(), revokedAt);
+        }
+    }
+
+    /**
+     * @return The number of users whose older tokens are currently revoked.
+     */
+    public long revokedUsers() {
+        return revokedBefore.estimatedSize();
+    }
+
+    private byte[] sign(long period, String payload) {
+        SecretKeySpec key = signingKeys.computeIfAbsent(period, this::deriveKey);
+        return hmac(key, payload.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private SecretKeySpec deriveKey(long period) {
+        return new SecretKeySpec(hmac(masterKey, ("access-token-key:" + period).getBytes(StandardCharsets.US_ASCII)),
+                HMAC_ALGORITHM);
+    }
+
+    private static byte[] hmac(SecretKeySpec key, byte[] data) {
+        try {
+            // Mac instances are not thread-safe, so each call gets its own.
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(data);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+
+    /**
+     * A signed token and the moment it stops being valid.
+     */
+    public record AccessToken(String value, Instant expiresAt) {
+    }
+
+    /**
+     * The token payload. Times are epoch milliseconds; kid is the rotation period of the signing key.
+     */
+    record Claims(long kid, String sub, List<String> roles, long iat, long exp) {
+    }
+}
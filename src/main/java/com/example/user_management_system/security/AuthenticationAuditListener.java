@@ -0,0 +1,51 @@
+package com.example.user_management_system.security;
+
+import com.example.user_management_system.event.AuditEvent;
+import com.example.user_management_system.service.AuditService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.authentication.event.AbstractAuthenticationFailureEvent;
+import org.springframework.security.authentication.event.AuthenticationSuccessEvent;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records successful and failed password logins in the audit journal.
+ *
+ * Spring Security publishes these events for every username/password check made by the
+ * AuthenticationManager, including checks answered by the CachingAuthenticationProvider.
+ * Requests authenticated with an access token don't log in, so they are not recorded.
+ */
+@Component
+public class AuthenticationAuditListener {
+
+    private final AuditService auditService;
+
+    @Autowired
+    public AuthenticationAuditListener(AuditService auditService) {
+        this.auditService = auditService;
+    }
+
+    @EventListener
+    public void onSuccess(AuthenticationSuccessEvent event) {
+        Authentication authentication = event.getAuthentication();
+        auditService.record(AuditEvent.Type.LOGIN_SUCCEEDED, authentication.getName(), authentication.getName(),
+                remoteAddress(authentication));
+    }
+
+    @EventListener
+    public void onFailure(AbstractAuthenticationFailureEvent event) {
+        Authentication authentication = event.getAuthentication();
+        String address = remoteAddress(authentication);
+        String reason = event.getException().getClass().getSimpleName();
+        auditService.record(AuditEvent.Type.LOGIN_FAILED, authentication.getName(), authentication.getName(),
+                address == null ? reason : reason + ", " + address);
+    }
+
+    private static String remoteAddress(Authentication authentication) {
+        return authentication.getDetails() instanceof WebAuthenticationDetails details
+                ? details.getRemoteAddress()
+                : null;
+    }
+}
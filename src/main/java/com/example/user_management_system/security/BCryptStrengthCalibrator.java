@@ -0,0 +1,63 @@
+package com.example.user_management_system.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+/**
+ * Picks a BCrypt strength (work factor) that makes one hash take about a target time on this machine.
+ *
+ * A fixed strength costs far more on slow hardware than on fast hardware. Instead, we time a few
+ * hashes at the minimum strength and extrapolate: each extra strength step doubles the cost.
+ * The result is the highest strength whose estimated time still fits in the target, never lower
+ * than the configured minimum.
+ */
+public final class BCryptStrengthCalibrator {
+
+    private static final Logger log = LoggerFactory.getLogger(BCryptStrengthCalibrator.class);
+    private static final int WARM_UP_ROUNDS = 2;
+    private static final int MEASURED_ROUNDS = 3;
+
+    private BCryptStrengthCalibrator() {
+    }
+
+    /**
+     * @param target      The wanted time for one hash.
+     * @param minStrength The lowest strength that may be returned (and the one that is measured).
+     * @param maxStrength The highest strength that may be returned.
+     * @return The calibrated strength.
+     */
+    public static int calibrate(Duration target, int minStrength, int maxStrength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(minStrength);
+        for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+            encoder.encode("calibration");
+        }
+        // Take the fastest of a few rounds, so a GC pause or a busy core doesn't skew the result.
+        long fastestNanos = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            encoder.encode("calibration");
+            fastestNanos = Math.min(fastestNanos, System.nanoTime() - start);
+        }
+
+        int strength = strengthFor(target.toNanos(), fastestNanos, minStrength, maxStrength);
+        log.info("BCrypt strength {} takes about {} ms here; using strength {} for a target of {} ms",
+                minStrength, fastestNanos / 1_000_000, strength, target.toMillis());
+        return strength;
+    }
+
+    /**
+     * @return The highest strength in [minStrength, maxStrength] whose estimated time is at most targetNanos.
+     */
+    static int strengthFor(long targetNanos, long nanosAtMinStrength, int minStrength, int maxStrength) {
+        int strength = minStrength;
+        long estimate = Math.max(1, nanosAtMinStrength);
+        while (strength < maxStrength && estimate * 2 <= targetNanos) {
+            estimate *= 2;
+            strength++;
+        }
+        return strength;
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.user_management_system.security;
+
+import com.example.user_management_system.event.UserChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An AuthenticationProvider that remembers successful username/password checks.
+ *
+ * Verifying a BCrypt hash costs tens of milliseconds of CPU, and with HTTP Basic every
+ * request carries the credentials again. This provider sits in front of the
+ * DaoAuthenticationProvider and caches the result of a successful check for a short time,
+ * so repeat calls from the same client skip the hash entirely.
+ *
+ * The raw password is never stored. Entries are keyed by username and hold an HMAC-SHA256
+ * digest of the username and the password that passed, computed with a random key that only
+ * lives in this process. Failed attempts are never cached.
+ *
+ * A check that is still running when its user is invalidated must not cache its (now stale)
+ * result. Every invalidation gives the user a new generation, and a check only caches its result
+ * if the generation it saw before calling the delegate is still current.
+ */
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final AuthenticationProvider delegate;
+    private final Cache<String, CachedCheck> cache;
+    // Generations of recently invalidated users; a user that is not in here has not changed for a TTL.
+    private final Cache<String, Long> generations;
+    private final AtomicLong nextGeneration = new AtomicLong();
+    private final long ttlNanos;
+    private final SecretKeySpec digestKey;
+
+    /**
+     * @param delegate The provider that does the real (expensive) credential check.
+     * @param ttl      How long a successful check is remembered.
+     * @param maxSize  The maximum number of remembered checks.
+     */
+    public CachingAuthenticationProvider(AuthenticationProvider delegate, Duration ttl, long maxSize) {
+        this.delegate = delegate;
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        this.generations = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .build();
+        this.ttlNanos = ttl.toNanos();
+        byte[] keyBytes = new byte[32];
+        new SecureRandom().nextBytes(keyBytes);
+        this.digestKey = new SecretKeySpec(keyBytes, HMAC_ALGORITHM);
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        if (!(authentication.getCredentials() instanceof String password)) {
+            return delegate.authenticate(authentication);
+        }
+
+        String username = authentication.getName();
+        String digest = digest(username, password);
+        CachedCheck cached = cache.getIfPresent(username);
+        if (cached != null && cached.digest().equals(digest)) {
+            // Build a fresh token so request-specific details are not shared between requests.
+            UsernamePasswordAuthenticationToken result = UsernamePasswordAuthenticationToken.authenticated(
+                    cached.authentication().getPrincipal(), authentication.getCredentials(),
+                    cached.authentication().getAuthorities());
+            result.setDetails(authentication.getDetails());
+            return result;
+        }
+
+        Long generation = generations.getIfPresent(username);
+        long start = System.nanoTime();
+        Authentication result = delegate.authenticate(authentication);
+        if (result != null && result.isAuthenticated()) {
+            CachedCheck check = new CachedCheck(digest, UsernamePasswordAuthenticationToken.authenticated(
+                    result.getPrincipal(), null, result.getAuthorities()));
+            // Runs under the same per-key lock as invalidate, so an invalidation can't slip in between.
+            // Generations expire after the TTL, so a check that took longer than that can't tell: skip it.
+            cache.asMap().compute(username, (key, current) ->
+                    Objects.equals(generation, generations.getIfPresent(key))
+                            && System.nanoTime() - start < ttlNanos ? check : current);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return delegate.supports(authentication);
+    }
+
+    /**
+     * Forgets every cached check for the given username.
+     * Must be called whenever that user's password or role changes.
+     *
+     * @param username The username whose entries should be dropped.
+     */
+    public void invalidate(String username) {
+        cache.asMap().compute(username, (key, current) -> {
+            generations.put(key, nextGeneration.incrementAndGet());
+            return null;
+        });
+    }
+
+    /**
+     * Evicts cached checks once a change to a user has been committed.
+     * Renames evict the old username as well as the new one.
+     *
+     * @param event The change that happened.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        invalidate(event.username());
+        if (event.previousUsername() != null && !event.previousUsername().equals(event.username())) {
+            invalidate(event.previousUsername());
+        }
+    }
+
+    /**
+     * @return Hit/miss counters of the cache, used to size it.
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * @return The approximate number of cached entries.
+     */
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private String digest(String username, String password) {
+        try {
+            // Mac instances are not thread-safe, so each call gets its own.
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(digestKey);
+            mac.update(username.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return HexFormat.of().formatHex(mac.doFinal(password.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+
+    private record CachedCheck(String digest, Authentication authentication) {
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.user_management_system.security;
+
+import com.example.user_management_system.event.UserChangedEvent;
+import com.example.user_management_system.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * A UserDetailsService that loads users from the "users" table through UserRepository.
+ *
+ * Looking a user up costs a database round trip, so loaded users are kept in a small
+ * in-process cache that is bounded in size and expires entries after a TTL.
+ * The cache stores immutable snapshots, and every call builds a new UserDetails from
+ * the snapshot. This matters because Spring Security erases the password of the
+ * UserDetails it was handed once authentication is done.
+ *
+ * Users that are not in the database are looked up in a fallback service,
+ * which holds the built-in accounts.
+ *
+ * It also implements UserDetailsPasswordService, so that outdated password hashes
+ * are replaced after a successful login.
+ */
+public class DatabaseUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
+
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    private final UserRepository userRepository;
+    private final UserDetailsService fallback;
+    private final Cache<String, UserSnapshot> cache;
+
+    /**
+     * @param userRepository The repository to load users from.
+     * @param fallback       The service consulted for users that are not in the database.
+     * @param ttl            How long a loaded user is cached.
+     * @param maxSize        The maximum number of cached users.
+     */
+    public DatabaseUserDetailsService(UserRepository userRepository, UserDetailsService fallback,
+                                      Duration ttl, long maxSize) {
+        this.userRepository = userRepository;
+        this.fallback = fallback;
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        // A null result from the loader is not cached, so unknown usernames are looked up again next time.
+        UserSnapshot snapshot = cache.get(username, this::loadSnapshot);
+        if (snapshot == null) {
+            throw new UsernameNotFoundException("User '" + username + "' was not found.");
+        }
+        return snapshot.toUserDetails();
+    }
+
+    /**
+     * Stores a rehashed password for a user, after a login found its hash outdated.
+     * Built-in users are updated in the fallback service, if it supports that.
+     *
+     * @param user        The user that just logged in.
+     * @param newPassword The new, already encoded password.
+     * @return The user with the new password.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        String username = user.getUsername();
+        if (userRepository.updatePassword(username, newPassword) == 0
+                && fallback instanceof UserDetailsPasswordService fallbackPasswords) {
+            fallbackPasswords.updatePassword(user, newPassword);
+        }
+        evict(username);
+        return User.withUserDetails(user).password(newPassword).build();
+    }
+
+    /**
+     * Drops the cached snapshot of the given username.
+     *
+     * @param username The username to evict.
+     */
+    public void evict(String username) {
+        cache.invalidate(username);
+    }
+
+    /**
+     * Evicts cached users once a change to the "users" table has been committed.
+     *
+     * @param event The change that happened.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        evict(event.username());
+        if (event.previousUsername() != null) {
+            evict(event.previousUsername());
+        }
+    }
+
+    /**
+     * @return Hit/miss counters of the user cache.
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    private UserSnapshot loadSnapshot(String username) {
+        return userRepository.findByUsername(username)
+                .map(user -> new UserSnapshot(user.getUsername(), user.getPassword(),
+                        List.of(toAuthority(user.getRole()))))
+                .orElseGet(() -> loadFallbackSnapshot(username));
+    }
+
+    private UserSnapshot loadFallbackSnapshot(String username) {
+        try {
+            UserDetails details = fallback.loadUserByUsername(username);
+            return new UserSnapshot(details.getUsername(), details.getPassword(),
+                    details.getAuthorities().stream().map(a -> a.getAuthority()).collect(Collectors.toList()));
+        } catch (UsernameNotFoundException e) {
+            return null;
+        }
+    }
+
+    private static String toAuthority(String role) {
+        return role.startsWith(ROLE_PREFIX) ? role : ROLE_PREFIX + role;
+    }
+
+    /**
+     * An immutable copy of the fields needed to authenticate a user.
+     */
+    private record UserSnapshot(String username, String password, List<String> authorities) {
+
+        UserDetails toUserDetails() {
+            return User.withUsername(username)
+                    .password(password)
+                    .authorities(authorities.toArray(String[]::new))
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.user_management_system.security;
+
+import com.example.user_management_system.exception.HashingCapacityExceededException;
+import com.example.user_management_system.exception.JsonErrorBody;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Turns a saturated password hashing pool during authentication into a 503 response.
+ *
+ * When HTTP Basic verifies a password, the hash runs inside the security filter chain,
+ * before any controller is involved, so GlobalExceptionHandler never sees the exception.
+ * This filter sits in front of authentication and answers with 503 and Retry-After instead.
+ */
+public class HashingOverloadFilter extends OncePerRequestFilter {
+
+    private final JsonErrorBody overloadBody;
+
+    public HashingOverloadFilter(ObjectMapper objectMapper) {
+        this.overloadBody = JsonErrorBody.withVariableField(objectMapper,
+                Map.of("status", HttpStatus.SERVICE_UNAVAILABLE.value()), "error");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        try {
+            filterChain.doFilter(request, response);
+        } catch (HashingCapacityExceededException ex) {
+            if (response.isCommitted()) {
+                throw ex;
+            }
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()));
+            overloadBody.write(response, HttpStatus.SERVICE_UNAVAILABLE.value(), ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.user_management_system.security;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Tracks failed logins per client IP address and per username, and tells when either has
+ * failed too often within the sliding window.
+ *
+ * Both counts live in fixed-size SlidingWindowSketch tables, so memory stays the same no matter
+ * how many addresses or usernames an attacker cycles through. Counts are approximate: a key may
+ * be throttled slightly early if it shares cells with other busy keys, but never late.
+ */
+public class LoginThrottle {
+
+    private final SlidingWindowSketch failuresByIp;
+    private final SlidingWindowSketch failuresByUsername;
+    private final int maxFailuresPerIp;
+    private final int maxFailuresPerUsername;
+    private final Clock clock;
+
+    /**
+     * @param window                 The length of the sliding window.
+     * @param maxFailuresPerIp       Failed logins allowed from one IP address per window.
+     * @param maxFailuresPerUsername Failed logins allowed for one username per window.
+     * @param tableSize              The number of counters per row of each table.
+     * @param clock                  The source of the current time.
+     */
+    public LoginThrottle(Duration window, int maxFailuresPerIp, int maxFailuresPerUsername, int tableSize, Clock clock) {
+        this.failuresByIp = new SlidingWindowSketch(tableSize, window.toMillis());
+        this.failuresByUsername = new SlidingWindowSketch(tableSize, window.toMillis());
+        this.maxFailuresPerIp = maxFailuresPerIp;
+        this.maxFailuresPerUsername = maxFailuresPerUsername;
+        this.clock = clock;
+    }
+
+    /**
+     * The reason a login attempt is refused.
+     */
+    public enum Limit {
+        IP, USERNAME
+    }
+
+    /**
+     * @param ip       The client address.
+     * @param username The username being logged in as, or null if unknown.
+     * @return The exceeded limit, or null if the attempt may go ahead.
+     */
+    public Limit check(String ip, String username) {
+        long now = clock.millis();
+        if (failuresByIp.estimate(ip, now) >= maxFailuresPerIp) {
+            return Limit.IP;
+        }
+        if (username != null && failuresByUsername.estimate(username, now) >= maxFailuresPerUsername) {
+            return Limit.USERNAME;
+        }
+        return null;
+    }
+
+    /**
+     * Counts a failed login.
+     *
+     * @param ip       The client address.
+     * @param username The username that was tried, or null if unknown.
+     */
+    public void recordFailure(String ip, String username) {
+        long now = clock.millis();
+        failuresByIp.increment(ip, now);
+        if (username != null) {
+            failuresByUsername.increment(username, now);
+        }
+    }
+
+    /**
+     * @return Seconds until the current window ends, a reasonable Retry-After for a throttled client.
+     */
+    public long retryAfterSeconds() {
+        return Math.max(1, (failuresByIp.millisUntilNextWindow(clock.millis()) + 999) / 1000);
+    }
+}
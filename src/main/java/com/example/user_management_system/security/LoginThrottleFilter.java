@@ -0,0 +1,96 @@
+package com.example.user_management_system.security;
+
+import com.example.user_management_system.exception.JsonErrorBody;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Refuses HTTP Basic logins with 429 Too Many Requests once a client IP address or a username
+ * has failed too often, before the password hash is ever computed.
+ *
+ * Only requests that carry Basic credentials are looked at. The username is read from the
+ * header (which is cheap), the LoginThrottle is asked whether the attempt may go ahead, and if
+ * the request then ends with 401, the failure is counted against both the address and the username.
+ */
+public class LoginThrottleFilter extends OncePerRequestFilter {
+
+    private static final String BASIC_PREFIX = "Basic ";
+
+    private final LoginThrottle loginThrottle;
+    private final byte[] throttledBody;
+    private final Map<LoginThrottle.Limit, Counter> throttledCounters = new EnumMap<>(LoginThrottle.Limit.class);
+
+    public LoginThrottleFilter(LoginThrottle loginThrottle, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.loginThrottle = loginThrottle;
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+        body.put("error", "Too many failed login attempts. Please try again later.");
+        this.throttledBody = JsonErrorBody.encode(objectMapper, body);
+        for (LoginThrottle.Limit limit : LoginThrottle.Limit.values()) {
+            throttledCounters.put(limit, Counter.builder("security.login.throttled")
+                    .description("Login attempts refused with 429 because of too many failures")
+                    .tag("limit", limit.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.regionMatches(true, 0, BASIC_PREFIX, 0, BASIC_PREFIX.length())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String ip = request.getRemoteAddr();
+        String username = basicUsername(header);
+        LoginThrottle.Limit exceeded = loginThrottle.check(ip, username);
+        if (exceeded != null) {
+            throttledCounters.get(exceeded).increment();
+            reject(response);
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+        if (response.getStatus() == HttpStatus.UNAUTHORIZED.value()) {
+            loginThrottle.recordFailure(ip, username);
+        }
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(loginThrottle.retryAfterSeconds()));
+        JsonErrorBody.write(response, HttpStatus.TOO_MANY_REQUESTS.value(), throttledBody);
+    }
+
+    /**
+     * @return The username of a Basic Authorization header, or null if the header can't be decoded.
+     */
+    private static String basicUsername(String header) {
+        try {
+            String decoded = new String(Base64.getDecoder().decode(header.substring(BASIC_PREFIX.length()).trim()),
+                    StandardCharsets.UTF_8);
+            int colon = decoded.indexOf(':');
+            return colon < 0 ? null : decoded.substring(0, colon);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
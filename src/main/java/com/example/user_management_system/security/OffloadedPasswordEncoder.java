@@ -0,0 +1,51 @@
+package com.example.user_management_system.security;
+
+import com.example.user_management_system.service.PasswordHashingService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A PasswordEncoder that runs the hashing of another encoder on the PasswordHashingService pool.
+ *
+ * This is the application's PasswordEncoder bean, so everything that hashes or verifies a password
+ * (user creation, the DaoAuthenticationProvider behind HTTP Basic, the bulk import) goes through the
+ * bounded pool without knowing about it.
+ */
+public class OffloadedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final PasswordHashingService hashingService;
+
+    public OffloadedPasswordEncoder(PasswordEncoder delegate, PasswordHashingService hashingService) {
+        this.delegate = delegate;
+        this.hashingService = hashingService;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return hashingService.execute("encode", () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return hashingService.execute("matches", () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        // Only inspects the stored hash, which is cheap, so it stays on the calling thread.
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Encodes a password for a bulk operation. Instead of failing when the pool is busy,
+     * this waits for room, so it must not be used on latency-sensitive paths.
+     *
+     * @param rawPassword The password to encode.
+     * @return A future that completes with the encoded password.
+     */
+    public CompletableFuture<String> encodeBulk(CharSequence rawPassword) {
+        return hashingService.executeBulk("encode", () -> delegate.encode(rawPassword));
+    }
+}
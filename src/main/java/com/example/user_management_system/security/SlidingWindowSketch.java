@@ -0,0 +1,127 @@
+package com.example.user_management_system.security;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Approximate per-key event counts over a sliding time window, in a fixed amount of memory.
+ *
+ * Keys are not stored. Each key is hashed to one cell in each of two rows of a fixed table
+ * (a count-min sketch), and its count is the smaller of its two cells. Unrelated keys that
+ * share a cell can only make a count too high, never too low, and needing both cells to
+ * collide keeps that rare.
+ *
+ * Each cell packs the window number and the counts of the current and previous window into
+ * one long, and is updated with compare-and-set, so no locks are taken. The sliding count is
+ * estimated as "previous window, weighted by how much of it still overlaps, plus current window".
+ */
+final class SlidingWindowSketch {
+
+    private static final int ROWS = 2;
+    private static final int COUNT_BITS = 20;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    private static final long WINDOW_MASK = (1L << (64 - 2 * COUNT_BITS)) - 1;
+
+    private final AtomicLongArray cells;
+    private final int columnMask;
+    private final long windowMillis;
+    // A random seed, so nobody can pick usernames or addresses that collide with someone else's.
+    private final long seed = new SecureRandom().nextLong();
+
+    /**
+     * @param columns      The number of cells per row; rounded up to a power of two.
+     * @param windowMillis The length of the sliding window.
+     */
+    SlidingWindowSketch(int columns, long windowMillis) {
+        int width = Integer.highestOneBit(Math.max(1, columns - 1)) << 1;
+        this.cells = new AtomicLongArray(ROWS * width);
+        this.columnMask = width - 1;
+        this.windowMillis = windowMillis;
+    }
+
+    /**
+     * Counts one event for the key.
+     *
+     * @param key       The key the event belongs to.
+     * @param nowMillis The current time.
+     */
+    void increment(String key, long nowMillis) {
+        long window = (nowMillis / windowMillis) & WINDOW_MASK;
+        long hash = hash(key);
+        for (int row = 0; row < ROWS; row++) {
+            int index = cellIndex(row, hash);
+            long current;
+            long updated;
+            do {
+                current = cells.get(index);
+                long cellWindow = current >>> (2 * COUNT_BITS);
+                long count = current & COUNT_MASK;
+                long previous;
+                if (cellWindow == window) {
+                    previous = (current >>> COUNT_BITS) & COUNT_MASK;
+                    count = Math.min(count + 1, COUNT_MASK);
+                } else {
+                    previous = cellWindow == ((window - 1) & WINDOW_MASK) ? count : 0;
+                    count = 1;
+                }
+                updated = (window << (2 * COUNT_BITS)) | (previous << COUNT_BITS) | count;
+            } while (!cells.compareAndSet(index, current, updated));
+        }
+    }
+
+    /**
+     * @param key       The key to look up.
+     * @param nowMillis The current time.
+     * @return The estimated number of events for the key during the last window length.
+     */
+    double estimate(String key, long nowMillis) {
+        long window = (nowMillis / windowMillis) & WINDOW_MASK;
+        double previousWeight = 1.0 - (double) (nowMillis % windowMillis) / windowMillis;
+        long hash = hash(key);
+        double estimate = Double.MAX_VALUE;
+        for (int row = 0; row < ROWS; row++) {
+            long cell = cells.get(cellIndex(row, hash));
+            long cellWindow = cell >>> (2 * COUNT_BITS);
+            long count = cell & COUNT_MASK;
+            double rowEstimate;
+            if (cellWindow == window) {
+                rowEstimate = ((cell >>> COUNT_BITS) & COUNT_MASK) * previousWeight + count;
+            } else if (cellWindow == ((window - 1) & WINDOW_MASK)) {
+                rowEstimate = count * previousWeight;
+            } else {
+                rowEstimate = 0;
+            }
+            estimate = Math.min(estimate, rowEstimate);
+        }
+        return estimate;
+    }
+
+    /**
+     * @param nowMillis The current time.
+     * @return Milliseconds until the current window ends.
+     */
+    long millisUntilNextWindow(long nowMillis) {
+        return windowMillis - nowMillis % windowMillis;
+    }
+
+    private int cellIndex(int row, long hash) {
+        // Each row uses a different half of the 64-bit hash.
+        int column = (int) (row == 0 ? hash : hash >>> 32) & columnMask;
+        return row * (columnMask + 1) + column;
+    }
+
+    /**
+     * A seeded 64-bit FNV-1a hash with a final avalanche step.
+     */
+    private long hash(String key) {
+        long hash = 0xcbf29ce484222325L ^ seed;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.user_management_system.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wraps one filter of the SecurityFilterChain and records how long that filter itself took.
+ *
+ * A filter's call includes every filter after it and the controller. To time a single stage,
+ * the time spent further down the chain is measured as well and subtracted, so the
+ * "security.filter.duration" timer only holds the time spent in this filter.
+ */
+public class TimedSecurityFilter implements Filter {
+
+    private final Filter delegate;
+    private final Timer timer;
+
+    /**
+     * @param delegate      The filter to time.
+     * @param meterRegistry The registry the timer is registered in.
+     */
+    public TimedSecurityFilter(Filter delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.timer = Timer.builder("security.filter.duration")
+                .description("Time spent in one filter of the security filter chain, excluding the filters after it")
+                .tag("filter", delegate.getClass().getSimpleName())
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        DownstreamTimingChain downstream = new DownstreamTimingChain(chain);
+        long start = System.nanoTime();
+        try {
+            delegate.doFilter(request, response, downstream);
+        } finally {
+            timer.record(System.nanoTime() - start - downstream.nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * @return The filter that is timed.
+     */
+    public Filter getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Passes the request on to the rest of the chain and remembers how long that took.
+     */
+    private static final class DownstreamTimingChain implements FilterChain {
+
+        private final FilterChain chain;
+        private long nanos;
+
+        DownstreamTimingChain(FilterChain chain) {
+            this.chain = chain;
+        }
+
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response) throws IOException, ServletException {
+            long start = System.nanoTime();
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                nanos += System.nanoTime() - start;
+            }
+        }
+    }
+}
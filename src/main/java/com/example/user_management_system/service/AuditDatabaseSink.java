@@ -0,0 +1,45 @@
+package com.example.user_management_system.service;
+
+import com.example.user_management_system.event.AuditEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Copies audit events into the "audit_log" table, one JDBC batch per drained batch of events.
+ * The table is created on startup if it doesn't exist.
+ */
+final class AuditDatabaseSink {
+
+    private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS audit_log ("
+            + "id BIGSERIAL PRIMARY KEY, "
+            + "created_at TIMESTAMP WITH TIME ZONE NOT NULL, "
+            + "type VARCHAR(32) NOT NULL, "
+            + "actor VARCHAR(255), "
+            + "target VARCHAR(2048), "
+            + "detail VARCHAR(2048))";
+
+    private static final String INSERT = "INSERT INTO audit_log (created_at, type, actor, target, detail) "
+            + "VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    AuditDatabaseSink(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        jdbcTemplate.execute(CREATE_TABLE);
+    }
+
+    /**
+     * @param events The events to insert, in a single batch.
+     */
+    void write(List<AuditEvent> events) {
+        jdbcTemplate.batchUpdate(INSERT, events, events.size(), (statement, event) -> {
+            statement.setTimestamp(1, Timestamp.from(event.timestamp()));
+            statement.setString(2, event.type().name());
+            statement.setString(3, event.actor());
+            statement.setString(4, event.target());
+            statement.setString(5, event.detail());
+        });
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.user_management_system.service;
+
+import com.example.user_management_system.event.AuditEvent;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded, lock-free queue of audit events with many producers and a single consumer.
+ *
+ * Request threads put events in with {@link #offer}, which never blocks: it claims a slot with one
+ * compare-and-set, or reports that the buffer is full. Each slot carries a sequence number that
+ * tells producers when it is free and the consumer when it has been filled, so a slow producer
+ * never lets the consumer read a half-written slot.
+ */
+final class AuditRingBuffer {
+
+    private final int mask;
+    private final AtomicReferenceArray<AuditEvent> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * @param capacity The number of events the buffer holds, rounded up to a power of two.
+     */
+    AuditRingBuffer(int capacity) {
+        int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * @param event The event to add.
+     * @return false if the buffer is full.
+     */
+    boolean offer(AuditEvent event) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long sequence = sequences.get(index);
+            if (sequence == position) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.set(index, event);
+                    // Publishes the event to the consumer.
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (sequence < position) {
+                // The slot still holds an event from one lap ago.
+                return false;
+            }
+            // Another producer took this position; try the next one.
+        }
+    }
+
+    /**
+     * Moves up to max events into the given list. Must only be called by the consumer thread.
+     *
+     * @param batch The list to add the events to.
+     * @param max   The maximum number of events to move.
+     * @return The number of events moved.
+     */
+    int drainTo(List<AuditEvent> batch, int max) {
+        long position = head.get();
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) position & mask;
+            if (sequences.get(index) != position + 1) {
+                break;
+            }
+            batch.add(slots.get(index));
+            slots.set(index, null);
+            // Frees the slot for the producers of the next lap.
+            sequences.set(index, position + mask + 1);
+            position++;
+            drained++;
+        }
+        head.set(position);
+        return drained;
+    }
+
+    /**
+     * @return The number of events waiting to be drained.
+     */
+    int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.user_management_system.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Appends audit records to memory-mapped segment files, one JSON line per record.
+ *
+ * A segment is created at its full size and mapped into memory, so appending a record is a copy
+ * into the page cache, with no system call. When the next record doesn't fit, the segment is
+ * flushed to disk, truncated to what was written, and a new one is started; beyond maxSegments,
+ * the oldest segments of this writer are deleted.
+ *
+ * Segment names are "audit-<time>-<pid>-<writer id>-<number>.log". They sort by creation time, and
+ * the random writer id keeps the segments of processes sharing a directory apart, even when those
+ * processes have the same pid (as in containers). Only segments with this writer's id are ever
+ * deleted, so segments left by earlier runs or other processes are kept until removed by hand.
+ * A segment that was not closed cleanly (the process was killed) ends in zero bytes after the last record.
+ *
+ * Only the audit writer thread uses this class.
+ */
+final class AuditSegmentWriter implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditSegmentWriter.class);
+    private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final String PREFIX = "audit-";
+    private static final String SUFFIX = ".log";
+
+    private final Path directory;
+    private final String writerPrefix;
+    private final int segmentSize;
+    private final int maxSegments;
+    private int segmentNumber;
+    private Path segment;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+
+    /**
+     * @param directory   The directory segments are written to; created if missing.
+     * @param segmentSize The size of one segment in bytes.
+     * @param maxSegments The number of segments kept, including the one being written.
+     * @throws IOException if the directory or the first segment can't be created.
+     */
+    AuditSegmentWriter(Path directory, int segmentSize, int maxSegments) throws IOException {
+        this.directory = directory;
+        this.writerPrefix = "-" + ProcessHandle.current().pid() + "-"
+                + UUID.randomUUID().toString().substring(0, 8) + "-";
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+        Files.createDirectories(directory);
+        openSegment();
+    }
+
+    /**
+     * Appends one record, starting a new segment first if it doesn't fit in the current one.
+     *
+     * @param record The encoded record, including its line separator.
+     * @throws IOException if a new segment can't be created.
+     */
+    void append(byte[] record) throws IOException {
+        if (record.length > segmentSize) {
+            log.warn("Audit record of {} bytes is larger than a segment, dropping it", record.length);
+            return;
+        }
+        if (record.length > buffer.remaining()) {
+            closeSegment();
+            openSegment();
+        }
+        buffer.put(record);
+    }
+
+    /**
+     * @return The segment being written.
+     */
+    Path currentSegment() {
+        return segment;
+    }
+
+    private void openSegment() throws IOException {
+        String name = PREFIX + LocalDateTime.now().format(NAME_FORMAT) + writerPrefix
+                + String.format("%05d", segmentNumber++) + SUFFIX;
+        segment = directory.resolve(name);
+        channel = FileChannel.open(segment, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        deleteOldSegments();
+    }
+
+    private void closeSegment() throws IOException {
+        int written = buffer.position();
+        buffer.force();
+        try {
+            // Drops the unused, zero-filled end of the segment.
+            channel.truncate(written);
+        } catch (IOException e) {
+            // Some platforms refuse to truncate a mapped file; readers stop at the first zero byte instead.
+            log.debug("Could not truncate audit segment {}", segment, e);
+        }
+        channel.close();
+    }
+
+    private void deleteOldSegments() throws IOException {
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(directory)) {
+            segments = files.filter(file -> {
+                        String name = file.getFileName().toString();
+                        return name.startsWith(PREFIX) && name.endsWith(SUFFIX) && name.contains(writerPrefix);
+                    })
+                    .sorted()
+                    .toList();
+        }
+        for (int i = 0; i < segments.size() - maxSegments; i++) {
+            Files.deleteIfExists(segments.get(i));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeSegment();
+    }
+}
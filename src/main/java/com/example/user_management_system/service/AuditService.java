@@ -0,0 +1,236 @@
+package com.example.user_management_system.service;
+
+import com.example.user_management_system.event.AuditEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Records the audit journal: user creation, logins and access denials.
+ *
+ * Recording an event only puts it on a bounded AuditRingBuffer, so callers never wait for I/O.
+ * A single background thread drains the buffer in batches and appends them to memory-mapped
+ * segment files (AuditSegmentWriter) and, if enabled, to the "audit_log" table in one JDBC batch.
+ *
+ * When the buffer is full, the overflow policy decides what happens to a new event: DROP drops it
+ * right away, WAIT lets the caller wait up to offer-timeout for room first. Dropped events are
+ * counted in "audit.events.dropped"; the backlog is "audit.buffer.size", and the time from an event
+ * being recorded to being written is the "audit.drain.lag" timer.
+ */
+@Service
+public class AuditService {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditService.class);
+    private static final long IDLE_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long OFFER_RETRY_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    /**
+     * What to do with an event when the buffer is full.
+     */
+    public enum OverflowPolicy {
+        /** Drop the new event. */
+        DROP,
+        /** Wait up to offer-timeout for room, then drop the new event. */
+        WAIT
+    }
+
+    private final boolean enabled;
+    private final ObjectMapper objectMapper;
+    private final AuditRingBuffer buffer;
+    private final OverflowPolicy overflowPolicy;
+    private final long offerTimeoutNanos;
+    private final int batchSize;
+    private final AuditSegmentWriter segmentWriter;
+    private final AuditDatabaseSink databaseSink;
+    private final Counter droppedCounter;
+    private final Counter fileWrittenCounter;
+    private final Counter databaseWrittenCounter;
+    private final Counter fileFailureCounter;
+    private final Counter databaseFailureCounter;
+    private final Timer drainLagTimer;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    @Autowired
+    public AuditService(ObjectMapper objectMapper,
+                        MeterRegistry meterRegistry,
+                        ObjectProvider<JdbcTemplate> jdbcTemplate,
+                        @Value("${app.audit.enabled:true}") boolean enabled,
+                        @Value("${app.audit.buffer-capacity:8192}") int capacity,
+                        @Value("${app.audit.overflow-policy:DROP}") OverflowPolicy overflowPolicy,
+                        @Value("${app.audit.offer-timeout:5ms}") Duration offerTimeout,
+                        @Value("${app.audit.batch-size:512}") int batchSize,
+                        @Value("${app.audit.directory:audit}") Path directory,
+                        @Value("${app.audit.segment-size:64MB}") DataSize segmentSize,
+                        @Value("${app.audit.max-segments:10}") int maxSegments,
+                        @Value("${app.audit.database.enabled:false}") boolean databaseEnabled) throws IOException {
+        this.enabled = enabled;
+        this.objectMapper = objectMapper;
+        this.buffer = new AuditRingBuffer(capacity);
+        this.overflowPolicy = overflowPolicy;
+        this.offerTimeoutNanos = offerTimeout.toNanos();
+        this.batchSize = batchSize;
+        this.segmentWriter = enabled
+                ? new AuditSegmentWriter(directory, Math.toIntExact(segmentSize.toBytes()), maxSegments)
+                : null;
+        this.databaseSink = enabled && databaseEnabled ? new AuditDatabaseSink(jdbcTemplate.getObject()) : null;
+
+        Gauge.builder("audit.buffer.size", buffer, AuditRingBuffer::size)
+                .description("Audit events waiting to be written")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("audit.events.dropped")
+                .description("Audit events dropped because the buffer was full")
+                .tag("policy", overflowPolicy.name().toLowerCase(Locale.ROOT))
+                .register(meterRegistry);
+        this.fileWrittenCounter = writtenCounter(meterRegistry, "file");
+        this.databaseWrittenCounter = writtenCounter(meterRegistry, "database");
+        this.fileFailureCounter = failureCounter(meterRegistry, "file");
+        this.databaseFailureCounter = failureCounter(meterRegistry, "database");
+        this.drainLagTimer = Timer.builder("audit.drain.lag")
+                .description("Time from an audit event being recorded to being written to the segment file")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+
+        if (enabled) {
+            this.writer = new Thread(this::drain, "audit-writer");
+            writer.setDaemon(true);
+            writer.start();
+        } else {
+            this.writer = null;
+        }
+    }
+
+    private static Counter writtenCounter(MeterRegistry meterRegistry, String sink) {
+        return Counter.builder("audit.events.written")
+                .description("Audit events written")
+                .tag("sink", sink)
+                .register(meterRegistry);
+    }
+
+    private static Counter failureCounter(MeterRegistry meterRegistry, String sink) {
+        return Counter.builder("audit.sink.failures")
+                .description("Batches of audit events that could not be written")
+                .tag("sink", sink)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records an audit event. Never blocks for I/O; with the WAIT policy it may wait up to
+     * offer-timeout for room in the buffer.
+     *
+     * @param type   What happened.
+     * @param actor  The username that acted, or null if unknown.
+     * @param target What was acted on.
+     * @param detail Extra facts, or null.
+     */
+    public void record(AuditEvent.Type type, String actor, String target, String detail) {
+        if (!enabled || !running) {
+            return;
+        }
+        AuditEvent event = new AuditEvent(Instant.now(), type, actor, target, detail);
+        if (buffer.offer(event)) {
+            return;
+        }
+        if (overflowPolicy == OverflowPolicy.WAIT) {
+            long deadline = System.nanoTime() + offerTimeoutNanos;
+            while (System.nanoTime() - deadline < 0) {
+                LockSupport.parkNanos(OFFER_RETRY_NANOS);
+                if (buffer.offer(event)) {
+                    return;
+                }
+            }
+        }
+        droppedCounter.increment();
+    }
+
+    /**
+     * The loop of the writer thread. After close, it keeps going until the buffer is empty.
+     */
+    private void drain() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        ByteArrayOutputStream record = new ByteArrayOutputStream(256);
+        while (true) {
+            // Read before draining, so that everything recorded before close is still written.
+            boolean stopping = !running;
+            batch.clear();
+            if (buffer.drainTo(batch, batchSize) == 0) {
+                if (stopping) {
+                    return;
+                }
+                LockSupport.parkNanos(IDLE_WAIT_NANOS);
+                continue;
+            }
+            writeToFile(batch, record);
+            if (databaseSink != null) {
+                writeToDatabase(batch);
+            }
+        }
+    }
+
+    private void writeToFile(List<AuditEvent> batch, ByteArrayOutputStream record) {
+        try {
+            for (AuditEvent event : batch) {
+                record.reset();
+                objectMapper.writeValue(record, event);
+                record.write('\n');
+                segmentWriter.append(record.toByteArray());
+            }
+            fileWrittenCounter.increment(batch.size());
+        } catch (IOException | RuntimeException e) {
+            fileFailureCounter.increment();
+            log.warn("Could not write {} audit events to {}", batch.size(), segmentWriter.currentSegment(), e);
+        }
+        long now = System.currentTimeMillis();
+        for (AuditEvent event : batch) {
+            drainLagTimer.record(now - event.timestamp().toEpochMilli(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void writeToDatabase(List<AuditEvent> batch) {
+        try {
+            databaseSink.write(batch);
+            databaseWrittenCounter.increment(batch.size());
+        } catch (RuntimeException e) {
+            databaseFailureCounter.increment();
+            log.warn("Could not write {} audit events to the database", batch.size(), e);
+        }
+    }
+
+    /**
+     * Stops accepting events, writes what is still buffered and closes the current segment.
+     *
+     * @throws IOException if the segment can't be closed.
+     * @throws InterruptedException if interrupted while waiting for the writer.
+     */
+    @PreDestroy
+    public void close() throws IOException, InterruptedException {
+        running = false;
+        if (writer != null) {
+            LockSupport.unpark(writer);
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+            segmentWriter.close();
+        }
+    }
+}
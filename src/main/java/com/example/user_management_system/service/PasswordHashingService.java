@@ -0,0 +1,175 @@
+package com.example.user_management_system.service;
+
+import com.example.user_management_system.exception.HashingCapacityExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs password hashing on a dedicated, fixed-size pool of worker threads.
+ *
+ * BCrypt is deliberately CPU-heavy. Running it on Tomcat request threads lets a burst of
+ * logins or sign-ups starve cheap endpoints, so all hashing goes through this pool instead.
+ * At most threads + queue-capacity hashes can be running or waiting at once:
+ * <ul>
+ *     <li>interactive callers (logins, POST /users) fail fast with a HashingCapacityExceededException,
+ *     which becomes a 503 with Retry-After, when there is no room;</li>
+ *     <li>bulk callers (the import) wait for room instead, but never hold more than one slot per
+ *     worker thread, so the queue always has space left for interactive callers.</li>
+ * </ul>
+ * Queue depth, time spent waiting for a worker and time spent hashing are published as metrics.
+ */
+@Service
+public class PasswordHashingService {
+
+    private final ThreadPoolExecutor executor;
+    private final Semaphore slots;
+    private final Semaphore bulkSlots;
+    private final long retryAfterSeconds;
+    private final Timer waitTimer;
+    private final MeterRegistry meterRegistry;
+    private final Counter rejectedCounter;
+    private final Map<String, Timer> hashTimers = new ConcurrentHashMap<>();
+
+    @Autowired
+    public PasswordHashingService(MeterRegistry meterRegistry,
+                                  @Value("${app.hashing.threads:0}") int threads,
+                                  @Value("${app.hashing.queue-capacity:64}") int queueCapacity,
+                                  @Value("${app.hashing.retry-after-seconds:1}") long retryAfterSeconds) {
+        // 0 means one hashing thread per CPU core.
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        // The queue itself is unbounded; the slots semaphore is what bounds the amount of queued work.
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.slots = new Semaphore(poolSize + queueCapacity);
+        this.bulkSlots = new Semaphore(poolSize);
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("password.hashing.queue.depth", executor, e -> e.getQueue().size())
+                .description("Hashes waiting for a worker thread")
+                .register(meterRegistry);
+        Gauge.builder("password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Hashes currently running")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("password.hashing.wait")
+                .description("Time a hash waited in the queue before a worker picked it up")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("password.hashing.rejected")
+                .description("Hashes rejected because the pool was saturated")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs a hash on the pool and waits for its result, failing fast if the pool is saturated.
+     *
+     * @param operation A short name of the operation, used to tag the hash-time metric.
+     * @param task      The hashing work.
+     * @return The result of the task.
+     * @throws HashingCapacityExceededException if the pool has no room for more work.
+     */
+    public <T> T execute(String operation, Supplier<T> task) {
+        if (!slots.tryAcquire()) {
+            rejectedCounter.increment();
+            throw new HashingCapacityExceededException(
+                    "Too many password hashing requests are in progress. Please try again later.", retryAfterSeconds);
+        }
+        try {
+            return submit(operation, task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a password hash", e);
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        }
+    }
+
+    /**
+     * Starts a hash on the pool without waiting for it to finish. If the pool is busy, this waits
+     * for room rather than failing, but a bulk caller never takes more than one slot per worker thread.
+     *
+     * @param operation A short name of the operation, used to tag the hash-time metric.
+     * @param task      The hashing work.
+     * @return A future that completes with the result of the task.
+     */
+    public <T> CompletableFuture<T> executeBulk(String operation, Supplier<T> task) {
+        try {
+            bulkSlots.acquire();
+            slots.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the password hashing pool", e);
+        }
+        // submit() releases the main slot; the bulk slot is released here once the hash is done.
+        try {
+            return submit(operation, task).whenComplete((result, error) -> bulkSlots.release());
+        } catch (RuntimeException e) {
+            bulkSlots.release();
+            throw e;
+        }
+    }
+
+    private <T> CompletableFuture<T> submit(String operation, Supplier<T> task) {
+        long queuedAt = System.nanoTime();
+        Timer hashTimer = hashTimers.computeIfAbsent(operation, op -> Timer.builder("password.hashing.duration")
+                .description("Time spent computing a password hash")
+                .tag("operation", op)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    waitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                    return hashTimer.record(task);
+                } finally {
+                    slots.release();
+                }
+            }, executor);
+        } catch (RuntimeException e) {
+            slots.release();
+            throw e;
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException(cause);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.user_management_system.service;
+
+import com.example.user_management_system.dto.QueryShapeStats;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps statistics of the SQL statements the application runs and logs the slow ones.
+ *
+ * StatementTimingDataSource (see SlowQueryLogConfig) reports every statement here. Each one is added
+ * to the statistics of its shape: the statement with literals replaced by "?" and IN lists collapsed,
+ * so that the same query with other values counts as one. A statement is also logged, to the "slow-query" logger, when it
+ * took at least the threshold, or otherwise with probability sample-rate. That logger writes through
+ * a bounded, non-blocking asynchronous appender (see logback-spring.xml), so a burst of slow statements
+ * never holds up the threads that ran them.
+ *
+ * Logged statements are counted in "jdbc.statements.logged" (tag "reason": slow or sampled). At most
+ * max-shapes shapes are kept; statements of other shapes are counted under "(other)".
+ */
+@Service
+public class SlowQueryLog {
+
+    private static final Logger log = LoggerFactory.getLogger("slow-query");
+    private static final String OTHER = "(other)";
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    /**
+     * The running totals of one shape.
+     */
+    private static final class Shape {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        private void add(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+    }
+
+    private final long thresholdNanos;
+    private final double sampleRate;
+    private final int maxShapes;
+    // Statements are usually built once and run many times, so shapes are looked up by the exact SQL first.
+    private final ConcurrentMap<String, Shape> shapesBySql = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Shape> shapes = new ConcurrentHashMap<>();
+    private final Counter slowCounter;
+    private final Counter sampledCounter;
+
+    @Autowired
+    public SlowQueryLog(MeterRegistry meterRegistry,
+                        @Value("${app.sql-log.threshold:100ms}") Duration threshold,
+                        @Value("${app.sql-log.sample-rate:0.001}") double sampleRate,
+                        @Value("${app.sql-log.max-shapes:1000}") int maxShapes) {
+        this.thresholdNanos = threshold.toNanos();
+        this.sampleRate = sampleRate;
+        this.maxShapes = maxShapes;
+        this.slowCounter = loggedCounter(meterRegistry, "slow");
+        this.sampledCounter = loggedCounter(meterRegistry, "sampled");
+    }
+
+    private static Counter loggedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("jdbc.statements.logged")
+                .description("SQL statements written to the slow-query log")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records a statement that ran.
+     *
+     * @param sql        The statement, or null if the driver call didn't say.
+     * @param nanos      How long it took.
+     * @param parameters The number of bind parameters set.
+     * @param batch      Whether it ran as a JDBC batch.
+     */
+    public void record(String sql, long nanos, int parameters, boolean batch) {
+        if (sql == null) {
+            sql = OTHER;
+        }
+        shapeOf(sql).add(nanos);
+        if (nanos >= thresholdNanos) {
+            slowCounter.increment();
+            log.warn("Slow statement took {} ms, {} parameters{}: {}", TimeUnit.NANOSECONDS.toMillis(nanos),
+                    parameters, batch ? ", batch" : "", sql);
+        } else if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            sampledCounter.increment();
+            log.info("Sampled statement took {} us, {} parameters{}: {}", TimeUnit.NANOSECONDS.toMicros(nanos),
+                    parameters, batch ? ", batch" : "", sql);
+        }
+    }
+
+    private Shape shapeOf(String sql) {
+        Shape shape = shapesBySql.get(sql);
+        if (shape != null) {
+            return shape;
+        }
+        String normalized = normalize(sql);
+        shape = shapes.get(normalized);
+        if (shape == null) {
+            shape = shapes.size() < maxShapes ? shapes.computeIfAbsent(normalized, key -> new Shape())
+                    : shapes.computeIfAbsent(OTHER, key -> new Shape());
+        }
+        if (shapesBySql.size() < maxShapes) {
+            shapesBySql.putIfAbsent(sql, shape);
+        }
+        return shape;
+    }
+
+    /**
+     * @param sql A SQL statement.
+     * @return Its shape: literals replaced by "?", IN lists of parameters collapsed to one, whitespace collapsed.
+     */
+    static String normalize(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("in (?...)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+
+    /**
+     * @param limit The maximum number of shapes to return.
+     * @return The statistics of the shapes with the highest total time, highest first.
+     */
+    public List<QueryShapeStats> topShapes(int limit) {
+        return shapes.entrySet().stream()
+                .map(entry -> new QueryShapeStats(entry.getKey(),
+                        entry.getValue().count.sum(),
+                        entry.getValue().totalNanos.sum() / 1_000_000.0,
+                        entry.getValue().maxNanos.get() / 1_000_000.0))
+                .sorted(Comparator.comparingDouble(QueryShapeStats::totalMillis).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * Drops all statistics.
+     */
+    public void reset() {
+        shapesBySql.clear();
+        shapes.clear();
+    }
+}
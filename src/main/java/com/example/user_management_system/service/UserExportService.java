@@ -0,0 +1,165 @@
+package com.example.user_management_system.service;
+
+import com.example.user_management_system.dto.UserView;
+import com.example.user_management_system.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Writes all users to an output stream, as NDJSON or CSV.
+ *
+ * Users are read page by page with keyset pagination (id > last id), each page in its own
+ * read-only transaction, and written out before the next page is read. Only one page is ever
+ * held in memory, and password hashes are never loaded, so the export runs in constant
+ * memory no matter how many users there are.
+ *
+ * CSV cells starting with =, +, - or @ (or a tab or carriage return) are prefixed with a single quote,
+ * so that a username like "=HYPERLINK(...)" is shown as text instead of run as a formula when the
+ * file is opened in a spreadsheet.
+ */
+@Service
+public class UserExportService {
+
+    /**
+     * The formats the export can be written in.
+     */
+    public enum Format {
+        NDJSON("application/x-ndjson"),
+        CSV("text/csv");
+
+        private final String contentType;
+
+        Format(String contentType) {
+            this.contentType = contentType;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+    }
+
+    // Characters that make Excel, LibreOffice and Google Sheets treat a cell as a formula.
+    private static final String FORMULA_PREFIXES = "=+-@\t\r";
+
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int pageSize;
+    private final Duration timeout;
+
+    @Autowired
+    public UserExportService(UserRepository userRepository,
+                             ObjectMapper objectMapper,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${app.export.page-size:1000}") int pageSize,
+                             @Value("${app.export.timeout:30m}") Duration timeout) {
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.pageSize = pageSize;
+        this.timeout = timeout;
+    }
+
+    /**
+     * @return How long one export may take before the request is timed out.
+     */
+    public Duration timeout() {
+        return timeout;
+    }
+
+    /**
+     * Writes every user to the given stream. The stream is flushed after each page but not closed.
+     *
+     * @param format The format to write.
+     * @param out    The stream to write to.
+     * @throws IOException if writing fails, for example because the client went away.
+     */
+    public void export(Format format, OutputStream out) throws IOException {
+        switch (format) {
+            case NDJSON -> exportNdjson(out);
+            case CSV -> exportCsv(out);
+        }
+    }
+
+    private void exportNdjson(OutputStream out) throws IOException {
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.setRootValueSeparator(new SerializedString("\n"));
+            long afterId = 0;
+            List<UserView> page;
+            while (!(page = nextPage(afterId)).isEmpty()) {
+                for (UserView user : page) {
+                    json.writeStartObject();
+                    json.writeNumberField("id", user.id());
+                    json.writeStringField("username", user.username());
+                    json.writeStringField("role", user.role());
+                    json.writeEndObject();
+                }
+                json.flush();
+                afterId = page.get(page.size() - 1).id();
+            }
+            if (afterId > 0) {
+                // The separator only goes between rows, so end the last line ourselves.
+                json.writeRaw('\n');
+            }
+        }
+    }
+
+    private void exportCsv(OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write("id,username,role\n");
+        long afterId = 0;
+        List<UserView> page;
+        while (!(page = nextPage(afterId)).isEmpty()) {
+            for (UserView user : page) {
+                writer.write(Long.toString(user.id()));
+                writer.write(',');
+                writeCsvField(writer, user.username());
+                writer.write(',');
+                writeCsvField(writer, user.role());
+                writer.write('\n');
+            }
+            writer.flush();
+            afterId = page.get(page.size() - 1).id();
+        }
+        writer.flush();
+    }
+
+    private List<UserView> nextPage(long afterId) {
+        return readOnlyTransaction.execute(status -> userRepository.findViewsAfter(afterId, Limit.of(pageSize)));
+    }
+
+    /**
+     * Writes a CSV field, quoting it (RFC 4180) only when it contains a separator, quote or line break.
+     * A field that a spreadsheet would read as a formula is written with a leading single quote.
+     */
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (!value.isEmpty() && FORMULA_PREFIXES.indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,265 @@
+package com.example.user_management_system.service;
+
+import com.example.user_management_system.dto.UserImportResult;
+import com.example.user_management_system.dto.UserImportResult.Row;
+import com.example.user_management_system.dto.UserImportResult.Status;
+import com.example.user_management_system.entity.User;
+import com.example.user_management_system.event.AuditEvent;
+import com.example.user_management_system.repository.UserRepository;
+import com.example.user_management_system.security.OffloadedPasswordEncoder;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Creates many users in one go.
+ *
+ * The input is read as a stream of User objects (a JSON array or NDJSON) and handled in chunks:
+ * <ol>
+ *     <li>each row is validated, and usernames repeated within the chunk are rejected;</li>
+ *     <li>usernames that already exist, including those created by earlier chunks, are found with
+ *     one set-based query per chunk;</li>
+ *     <li>passwords are hashed in parallel on the PasswordHashingService pool;</li>
+ *     <li>the chunk is inserted in JDBC batches, in its own transaction.</li>
+ * </ol>
+ * The results of a chunk are handed to the caller as soon as the chunk is done, so only one chunk
+ * of rows and results is held in memory at a time, however large the input is.
+ */
+@Service
+public class UserImportService {
+
+    // PostgreSQL and H2 both report unique violations with this SQLState.
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    private final UserRepository userRepository;
+    private final OffloadedPasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader userReader;
+    private final AuditService auditService;
+    private final int chunkSize;
+
+    @Autowired
+    public UserImportService(UserRepository userRepository,
+                             OffloadedPasswordEncoder passwordEncoder,
+                             Validator validator,
+                             EntityManager entityManager,
+                             PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper,
+                             AuditService auditService,
+                             @Value("${app.import.chunk-size:500}") int chunkSize) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.validator = validator;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.userReader = objectMapper.readerFor(User.class);
+        this.auditService = auditService;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Imports all users read from the given stream.
+     * Rows are independent: an invalid or duplicate row doesn't stop the others from being created.
+     * If the input stops being valid JSON, the import stops at that row and everything before it is kept.
+     *
+     * Every created user is recorded in the audit journal, with its role and the given actor.
+     *
+     * @param input   A JSON array of users, or one JSON user per line (NDJSON).
+     * @param actor   The username of the admin running the import.
+     * @param results Receives the results of each chunk of rows, in input order, once the chunk is done.
+     * @return The totals of the import.
+     * @throws IOException if the request body can't be read.
+     */
+    public UserImportResult importUsers(InputStream input, String actor, Consumer<List<Row>> results)
+            throws IOException {
+        Totals totals = new Totals();
+        // Every row read since the last chunk was imported: the valid ones are pending, the others already have a result.
+        List<Row> rejected = new ArrayList<>();
+        List<PendingRow> pending = new ArrayList<>(chunkSize);
+        Set<String> chunkUsernames = new HashSet<>();
+        int index = 0;
+
+        try (MappingIterator<User> users = userReader.readValues(input)) {
+            while (true) {
+                User user;
+                try {
+                    if (!users.hasNextValue()) {
+                        break;
+                    }
+                    user = users.nextValue();
+                } catch (JsonProcessingException e) {
+                    rejected.add(new Row(index, null, Status.INVALID, null,
+                            List.of("Malformed JSON: " + e.getOriginalMessage())));
+                    break;
+                }
+
+                Set<ConstraintViolation<User>> violations = validator.validate(user);
+                if (!violations.isEmpty()) {
+                    rejected.add(new Row(index, user.getUsername(), Status.INVALID, null,
+                            violations.stream().map(ConstraintViolation::getMessage).sorted().toList()));
+                } else if (!chunkUsernames.add(user.getUsername())) {
+                    rejected.add(new Row(index, user.getUsername(), Status.DUPLICATE, null, null));
+                } else {
+                    pending.add(new PendingRow(index, user));
+                }
+                index++;
+
+                if (pending.size() + rejected.size() == chunkSize) {
+                    finishChunk(pending, rejected, actor, totals, results);
+                    chunkUsernames.clear();
+                }
+            }
+        }
+        if (!pending.isEmpty() || !rejected.isEmpty()) {
+            finishChunk(pending, rejected, actor, totals, results);
+        }
+        return new UserImportResult(totals.created, totals.failed);
+    }
+
+    private void finishChunk(List<PendingRow> pending, List<Row> rejected, String actor, Totals totals,
+                             Consumer<List<Row>> results) {
+        List<Row> chunkResults = new ArrayList<>(pending.size() + rejected.size());
+        chunkResults.addAll(rejected);
+        if (!pending.isEmpty()) {
+            chunkResults.addAll(importChunk(pending, actor));
+        }
+        chunkResults.sort(Comparator.comparingInt(Row::index));
+        for (Row row : chunkResults) {
+            if (row.status() == Status.CREATED) {
+                totals.created++;
+            } else {
+                totals.failed++;
+            }
+        }
+        results.accept(chunkResults);
+        pending.clear();
+        rejected.clear();
+    }
+
+    private List<Row> importChunk(List<PendingRow> chunk, String actor) {
+        List<Row> results = new ArrayList<>(chunk.size());
+
+        // One query for the whole chunk instead of one findByUsername per row.
+        // Earlier chunks are committed by now, so this also catches usernames repeated across chunks.
+        Set<String> existing = userRepository.findExistingUsernames(
+                chunk.stream().map(row -> row.user().getUsername()).toList());
+        List<PendingRow> fresh = new ArrayList<>(chunk.size());
+        for (PendingRow row : chunk) {
+            if (existing.contains(row.user().getUsername())) {
+                results.add(new Row(row.index(), row.user().getUsername(), Status.DUPLICATE, null, null));
+            } else {
+                fresh.add(row);
+            }
+        }
+        if (fresh.isEmpty()) {
+            return results;
+        }
+
+        hashPasswords(fresh);
+
+        List<User> users = fresh.stream().map(PendingRow::user).toList();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                userRepository.saveAll(users);
+                userRepository.flush();
+                // Inside the transaction, so it clears the persistence context the chunk was saved in.
+                // With open-in-view that context lives for the whole request and would otherwise keep every chunk.
+                entityManager.clear();
+            });
+            for (PendingRow row : fresh) {
+                results.add(new Row(row.index(), row.user().getUsername(), Status.CREATED, row.user().getId(), null));
+                auditCreated(row.user(), actor);
+            }
+        } catch (DataIntegrityViolationException e) {
+            // Someone else created one of these usernames after our check, or a row broke another
+            // constraint. Fall back to row-by-row inserts so only the offending rows are rejected.
+            results.addAll(insertOneByOne(fresh, actor));
+        }
+        return results;
+    }
+
+    private void hashPasswords(List<PendingRow> rows) {
+        // The hashes run on the shared hashing pool. Bulk hashing waits for room in the pool
+        // instead of failing, and leaves room for logins and single creates.
+        List<CompletableFuture<Void>> hashes = new ArrayList<>(rows.size());
+        for (PendingRow row : rows) {
+            User user = row.user();
+            hashes.add(passwordEncoder.encodeBulk(user.getPassword()).thenAccept(user::setPassword));
+        }
+        CompletableFuture.allOf(hashes.toArray(CompletableFuture[]::new)).join();
+    }
+
+    private List<Row> insertOneByOne(List<PendingRow> rows, String actor) {
+        List<Row> results = new ArrayList<>(rows.size());
+        for (PendingRow row : rows) {
+            User user = row.user();
+            // The failed batch was rolled back, so ids assigned to it are not valid any more.
+            user.setId(null);
+            try {
+                User saved = transactionTemplate.execute(status -> {
+                    User inserted = userRepository.saveAndFlush(user);
+                    entityManager.clear();
+                    return inserted;
+                });
+                results.add(new Row(row.index(), user.getUsername(), Status.CREATED, saved.getId(), null));
+                auditCreated(saved, actor);
+            } catch (DataIntegrityViolationException e) {
+                results.add(isUsernameTaken(e)
+                        ? new Row(row.index(), user.getUsername(), Status.DUPLICATE, null, null)
+                        : new Row(row.index(), user.getUsername(), Status.ERROR, null,
+                        List.of("Rejected by the database: " + e.getMostSpecificCause().getMessage())));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * @param e An insert failure.
+     * @return Whether it is a unique violation on the username, as opposed to any other constraint.
+     */
+    static boolean isUsernameTaken(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException && UNIQUE_VIOLATION.equals(sqlException.getSQLState())) {
+                String message = String.valueOf(sqlException.getMessage()).toLowerCase(Locale.ROOT);
+                return message.contains("username");
+            }
+        }
+        return false;
+    }
+
+    private void auditCreated(User user, String actor) {
+        auditService.record(AuditEvent.Type.USER_CREATED, actor, user.getUsername(), "role=" + user.getRole() + ", import");
+    }
+
+    private record PendingRow(int index, User user) {
+    }
+
+    private static final class Totals {
+        private int created;
+        private int failed;
+    }
+}
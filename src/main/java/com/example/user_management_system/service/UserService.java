@@ -0,0 +1,139 @@
+package com.example.user_management_system.service;
+
+import com.example.user_management_system.dto.UserView;
+import com.example.user_management_system.entity.User;
+import com.example.user_management_system.event.UserChangedEvent;
+import com.example.user_management_system.exception.ResourceConflictException;
+import com.example.user_management_system.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Business logic for creating, reading, updating and deleting users.
+ *
+ * Users are read as UserViews, selected without the password column, so reading a user
+ * never loads its password hash or a managed entity. Updates and deletes go through JPA, so
+ * UserChangePublisher publishes a UserChangedEvent for them and every cache drops the old user.
+ */
+@Service
+public class UserService {
+
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final UsernameBloomFilter usernameFilter;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public UserService(UserRepository userRepository,
+                       PasswordEncoder passwordEncoder,
+                       UsernameBloomFilter usernameFilter,
+                       ApplicationEventPublisher eventPublisher,
+                       PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.usernameFilter = usernameFilter;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Creates a new user with an encoded password.
+     *
+     * The insert itself detects a taken username, so a new user costs a single database round trip.
+     * Before hashing the password, the username Bloom filter is consulted: if the username may be taken,
+     * we look it up so a known duplicate is rejected without paying for the hash.
+     *
+     * @param newUser The user to create, with a plain-text password.
+     * @return The created user, with its id set and its password encoded.
+     * @throws ResourceConflictException if the username is already taken.
+     */
+    public User createUser(User newUser) {
+        String username = newUser.getUsername();
+        if (usernameFilter.mightContain(username) && userRepository.findByUsername(username).isPresent()) {
+            throw usernameTaken(username);
+        }
+
+        String encodedPassword = passwordEncoder.encode(newUser.getPassword());
+        Long id = userRepository.insertIfAbsent(username, encodedPassword, newUser.getRole())
+                .orElseThrow(() -> usernameTaken(username));
+
+        newUser.setId(id);
+        newUser.setPassword(encodedPassword);
+        // The native insert bypasses JPA, so publish the event UserChangePublisher would have published.
+        eventPublisher.publishEvent(new UserChangedEvent(id, username, null, newUser.getRole(),
+                UserChangedEvent.Type.CREATED));
+        return newUser;
+    }
+
+    /**
+     * Replaces the username, password and role of a user, with the password encoded.
+     *
+     * The password is hashed before the transaction starts, so no pooled connection is held during the hash.
+     * A rename to a username known to be taken is rejected; one taken concurrently fails on the unique
+     * constraint at commit. Once the change commits, the user's access tokens are revoked.
+     *
+     * @param id      The primary key of the user.
+     * @param changes The new values, with a plain-text password.
+     * @return The updated user's view, or an empty Optional if there is no such user.
+     * @throws ResourceConflictException if the new username is taken by another user.
+     */
+    public Optional<UserView> updateUser(Long id, User changes) {
+        String username = changes.getUsername();
+        String encodedPassword = passwordEncoder.encode(changes.getPassword());
+        return transactionTemplate.execute(status -> userRepository.findById(id).map(user -> {
+            if (!username.equals(user.getUsername())
+                    && userRepository.findByUsername(username).filter(other -> !other.getId().equals(id)).isPresent()) {
+                throw usernameTaken(username);
+            }
+            user.setUsername(username);
+            user.setPassword(encodedPassword);
+            user.setRole(changes.getRole());
+            return new UserView(user.getId(), user.getUsername(), user.getRole());
+        }));
+    }
+
+    /**
+     * Deletes a user. Once the delete commits, the user's access tokens are revoked.
+     *
+     * @param id The primary key of the user.
+     * @return The deleted user's view, or an empty Optional if there is no such user.
+     */
+    public Optional<UserView> deleteUser(Long id) {
+        return transactionTemplate.execute(status -> userRepository.findById(id).map(user -> {
+            userRepository.delete(user);
+            return new UserView(user.getId(), user.getUsername(), user.getRole());
+        }));
+    }
+
+    /**
+     * @param id The primary key of the user.
+     * @return The user's view, or an empty Optional if there is no such user.
+     */
+    public Optional<UserView> findUser(Long id) {
+        return userRepository.findViewById(id);
+    }
+
+    /**
+     * Reads a page of users ordered by id, with keyset pagination.
+     *
+     * @param afterId The last id of the previous page, or 0 for the first page.
+     * @param size    The maximum number of users to return.
+     * @return Up to size users with an id greater than afterId.
+     */
+    public List<UserView> listUsers(long afterId, int size) {
+        return userRepository.findViewsAfter(afterId, Limit.of(size));
+    }
+
+    private static ResourceConflictException usernameTaken(String username) {
+        return new ResourceConflictException("Username '" + username + "' is already taken.");
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.user_management_system.service;
+
+import com.example.user_management_system.dto.UserView;
+import com.example.user_management_system.event.UserChangedEvent;
+import com.example.user_management_system.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * An in-memory Bloom filter over every username in the database.
+ *
+ * A Bloom filter can answer "definitely not taken" or "maybe taken". When creating a user we
+ * only have to look in the database for the (rare) "maybe" answers, and a username that is
+ * known to be taken can be rejected before the expensive password hash is computed.
+ *
+ * The filter is filled from the database once the application is ready, and every created user
+ * is added to it. Until it has been filled, every username counts as "maybe taken".
+ * Deleted users cannot be removed from a Bloom filter; they only cause an extra lookup.
+ */
+@Component
+public class UsernameBloomFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(UsernameBloomFilter.class);
+    private static final int WARM_UP_PAGE_SIZE = 10_000;
+
+    private final UserRepository userRepository;
+    private final boolean enabled;
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+    private volatile boolean ready;
+
+    /**
+     * @param userRepository     The repository the filter is filled from.
+     * @param enabled            Whether the filter is used at all.
+     * @param expectedInsertions How many usernames the filter is sized for.
+     * @param falsePositiveRate  The wanted rate of "maybe taken" answers for free usernames.
+     */
+    @Autowired
+    public UsernameBloomFilter(UserRepository userRepository,
+                               @Value("${app.create.bloom-filter.enabled:true}") boolean enabled,
+                               @Value("${app.create.bloom-filter.expected-insertions:1000000}") long expectedInsertions,
+                               @Value("${app.create.bloom-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.userRepository = userRepository;
+        this.enabled = enabled;
+        // Standard Bloom filter sizing: m = -n * ln(p) / ln(2)^2 bits and k = m / n * ln(2) hash functions.
+        long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = enabled ? (int) Math.max(1, (optimalBits + 63) / 64) : 1;
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) optimalBits / expectedInsertions * Math.log(2)));
+    }
+
+    /**
+     * @param username The username to check.
+     * @return false if the username is definitely free, true if it may be taken.
+     */
+    public boolean mightContain(String username) {
+        if (!enabled || !ready) {
+            return true;
+        }
+        long hash = hash(username);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Records that the given username is taken.
+     *
+     * @param username The username to add.
+     */
+    public void put(String username) {
+        if (!enabled) {
+            return;
+        }
+        long hash = hash(username);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            while (((current = bits.get(word)) & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+                // Another thread changed this word; retry with its new value.
+            }
+        }
+    }
+
+    /**
+     * Fills the filter with every username in the database, a page at a time.
+     * Runs once the application is ready, so it doesn't hold up startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        long count = 0;
+        long afterId = 0;
+        List<UserView> page;
+        while (!(page = userRepository.findViewsAfter(afterId, Limit.of(WARM_UP_PAGE_SIZE))).isEmpty()) {
+            for (UserView user : page) {
+                put(user.username());
+            }
+            count += page.size();
+            afterId = page.get(page.size() - 1).id();
+        }
+        ready = true;
+        log.info("Username Bloom filter loaded with {} usernames ({} bits, {} hash functions)", count, bitCount, hashCount);
+    }
+
+    /**
+     * Adds usernames created or renamed through any path, including Spring Data REST.
+     *
+     * @param event The change that happened.
+     */
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.type() != UserChangedEvent.Type.DELETED) {
+            put(event.username());
+        }
+    }
+
+    /**
+     * A 64-bit FNV-1a hash with a final avalanche step, so both halves are usable as independent hashes.
+     */
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,560 @@
+package com.example.user_management_system.service;
+
+import com.example.user_management_system.dto.UserView;
+import com.example.user_management_system.event.UserChangedEvent;
+import com.example.user_management_system.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * An in-memory index for searching users by part of their username, ignoring case.
+ *
+ * Most of the index is a Segment: every username in one sorted array, so the usernames starting
+ * with a prefix are a contiguous range found by binary search, plus, for every 3-character
+ * sequence (trigram), the positions of the usernames containing it. A substring search only
+ * checks the usernames in the shortest posting list of its trigrams.
+ *
+ * A Segment is immutable. Users created, changed or deleted since it was built are kept in a small
+ * map of recent changes that every search scans, and once there are more than merge-threshold of
+ * them a background thread builds a new Segment that includes them. The Segment is filled from the
+ * database once the application is ready; until then {@link #isReady()} is false.
+ *
+ * Results are ranked: usernames starting with the query (an exact match first) before usernames
+ * that only contain it, each group in case-insensitive alphabetical order.
+ */
+@Component
+public class UsernameSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(UsernameSearchIndex.class);
+    private static final int WARM_UP_PAGE_SIZE = 10_000;
+    private static final int GRAM_LENGTH = 3;
+
+    /**
+     * Case-insensitive alphabetical order, then case-sensitive, so usernames differing only in case
+     * still have a fixed order.
+     */
+    private static final Comparator<String> USERNAME_ORDER = UsernameSearchIndex::compareFolded;
+    private static final Comparator<UserView> VIEW_ORDER = Comparator.comparing(UserView::username, USERNAME_ORDER);
+
+    private final UserRepository userRepository;
+    private final boolean enabled;
+    private final int mergeThreshold;
+    private final Object writeLock = new Object();
+    private final AtomicBoolean merging = new AtomicBoolean();
+    private final ExecutorService merger;
+    private volatile State state = State.empty();
+    private volatile boolean ready;
+
+    /**
+     * What a search sees: a Segment, plus the users changed since it was built.
+     *
+     * Every changed user's id is in removed, which hides its old entry in the Segment (and in frozen),
+     * and its current version is in added unless it was deleted. While a merge is building the next
+     * Segment, the changes it includes are frozen and new ones go to fresh added/removed collections.
+     */
+    private record State(Segment segment,
+                         Map<Long, UserView> frozenAdded, Set<Long> frozenRemoved,
+                         Map<Long, UserView> added, Set<Long> removed) {
+
+        static State empty() {
+            return new State(Segment.EMPTY, Map.of(), Set.of(), new ConcurrentHashMap<>(), ConcurrentHashMap.newKeySet());
+        }
+
+        boolean inSegment(long id) {
+            return (frozenRemoved.isEmpty() || !frozenRemoved.contains(id)) && (removed.isEmpty() || !removed.contains(id));
+        }
+
+        int changes() {
+            return added.size() + removed.size();
+        }
+    }
+
+    /**
+     * @param userRepository The repository the index is filled from.
+     * @param enabled        Whether the index is built at all.
+     * @param mergeThreshold How many changes are kept beside the Segment before it is rebuilt.
+     */
+    @Autowired
+    public UsernameSearchIndex(UserRepository userRepository,
+                               @Value("${app.search.enabled:true}") boolean enabled,
+                               @Value("${app.search.merge-threshold:4096}") int mergeThreshold) {
+        this.userRepository = userRepository;
+        this.enabled = enabled;
+        this.mergeThreshold = mergeThreshold;
+        this.merger = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "username-index-merge");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return Whether the index has been filled and can be searched.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Finds users whose username starts with or contains the query, ignoring case.
+     * Queries shorter than 3 characters only match prefixes.
+     *
+     * @param query  The text to look for.
+     * @param offset How many of the best results to skip.
+     * @param limit  The maximum number of results to return.
+     * @return The matching users, best first.
+     */
+    public List<UserView> search(String query, int offset, int limit) {
+        State current = state;
+        Segment segment = current.segment();
+        int wanted = offset + limit;
+
+        // Users changed since the Segment was built; there are at most about twice merge-threshold.
+        List<UserView> recentPrefixed = new ArrayList<>();
+        List<UserView> recentContaining = new ArrayList<>();
+        collectRecent(current.frozenAdded().values(), current.removed(), query, recentPrefixed, recentContaining);
+        collectRecent(current.added().values(), Set.of(), query, recentPrefixed, recentContaining);
+
+        int from = segment.lowerBound(query);
+        int to = segment.upperBound(query, from);
+        List<UserView> prefixed = new ArrayList<>();
+        for (int i = from; i < to && prefixed.size() < wanted; i++) {
+            if (current.inSegment(segment.ids[i])) {
+                prefixed.add(segment.view(i));
+            }
+        }
+        List<UserView> results = merge(prefixed, recentPrefixed, wanted);
+
+        if (results.size() < wanted && query.length() >= GRAM_LENGTH) {
+            int stillWanted = wanted - results.size();
+            List<UserView> containing = new ArrayList<>();
+            Segment.Candidates candidates = segment.candidates(query);
+            for (int i = candidates.next(); i >= 0 && containing.size() < stillWanted; i = candidates.next()) {
+                // Prefix matches are already in the results.
+                if ((i < from || i >= to) && current.inSegment(segment.ids[i])
+                        && containsIgnoreCase(segment.usernames[i], query)) {
+                    containing.add(segment.view(i));
+                }
+            }
+            results.addAll(merge(containing, recentContaining, stillWanted));
+        }
+        return offset >= results.size() ? List.of() : results.subList(offset, Math.min(results.size(), wanted));
+    }
+
+    private static void collectRecent(Collection<UserView> users, Set<Long> removed, String query,
+                                      List<UserView> prefixed, List<UserView> containing) {
+        for (UserView user : users) {
+            if (removed.contains(user.id())) {
+                continue;
+            }
+            if (user.username().regionMatches(true, 0, query, 0, query.length())) {
+                prefixed.add(user);
+            } else if (query.length() >= GRAM_LENGTH && containsIgnoreCase(user.username(), query)) {
+                containing.add(user);
+            }
+        }
+        prefixed.sort(VIEW_ORDER);
+        containing.sort(VIEW_ORDER);
+    }
+
+    /**
+     * Merges two lists sorted by VIEW_ORDER into one, keeping at most max elements.
+     */
+    private static List<UserView> merge(List<UserView> first, List<UserView> second, int max) {
+        List<UserView> merged = new ArrayList<>(Math.min(max, first.size() + second.size()));
+        int i = 0;
+        int j = 0;
+        while (merged.size() < max && (i < first.size() || j < second.size())) {
+            if (j >= second.size() || (i < first.size() && VIEW_ORDER.compare(first.get(i), second.get(j)) <= 0)) {
+                merged.add(first.get(i++));
+            } else {
+                merged.add(second.get(j++));
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Keeps the index up to date with users created, renamed or deleted through any path,
+     * once the transaction that made the change has committed.
+     *
+     * @param event The change that happened.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (writeLock) {
+            State current = state;
+            current.removed().add(event.id());
+            if (event.type() == UserChangedEvent.Type.DELETED) {
+                current.added().remove(event.id());
+            } else {
+                current.added().put(event.id(), new UserView(event.id(), event.username(), event.role()));
+            }
+            if (ready && current.changes() > mergeThreshold && merging.compareAndSet(false, true)) {
+                merger.execute(this::rebuild);
+            }
+        }
+    }
+
+    /**
+     * Fills the index with every user in the database, a page at a time.
+     * Runs once the application is ready, so it doesn't hold up startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.nanoTime();
+        List<UserView> users = new ArrayList<>();
+        long afterId = 0;
+        List<UserView> page;
+        while (!(page = userRepository.findViewsAfter(afterId, Limit.of(WARM_UP_PAGE_SIZE))).isEmpty()) {
+            users.addAll(page);
+            afterId = page.get(page.size() - 1).id();
+        }
+        Segment segment = Segment.build(users);
+        synchronized (writeLock) {
+            // Changes made during the scan stay in added/removed; removed hides the scanned version.
+            State current = state;
+            state = new State(segment, Map.of(), Set.of(), current.added(), current.removed());
+            ready = true;
+        }
+        log.info("Username search index loaded with {} users in {} ms", segment.size(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Builds a Segment that includes the recent changes, without blocking searches or changes.
+     */
+    void rebuild() {
+        try {
+            State frozen;
+            synchronized (writeLock) {
+                State current = state;
+                frozen = new State(current.segment(), current.added(), current.removed(),
+                        new ConcurrentHashMap<>(), ConcurrentHashMap.newKeySet());
+                state = frozen;
+            }
+            Segment segment = frozen.segment();
+            List<UserView> users = new ArrayList<>(segment.size() + frozen.frozenAdded().size());
+            for (int i = 0; i < segment.size(); i++) {
+                if (!frozen.frozenRemoved().contains(segment.ids[i])) {
+                    users.add(segment.view(i));
+                }
+            }
+            users.addAll(frozen.frozenAdded().values());
+            Segment merged = Segment.build(users);
+            synchronized (writeLock) {
+                State current = state;
+                state = new State(merged, Map.of(), Set.of(), current.added(), current.removed());
+            }
+        } finally {
+            merging.set(false);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        merger.shutdownNow();
+    }
+
+    private static char fold(char c) {
+        // The same folding String.regionMatches(true, ...) and String.CASE_INSENSITIVE_ORDER use.
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    private static String fold(String value) {
+        char[] chars = value.toCharArray();
+        for (int k = 0; k < chars.length; k++) {
+            chars[k] = fold(chars[k]);
+        }
+        return new String(chars);
+    }
+
+    private static int compareFolded(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        for (int k = 0; k < length; k++) {
+            char x = fold(a.charAt(k));
+            char y = fold(b.charAt(k));
+            if (x != y) {
+                return x - y;
+            }
+        }
+        return a.length() != b.length() ? a.length() - b.length() : a.compareTo(b);
+    }
+
+    /**
+     * Compares the start of a username with a prefix: negative if the username sorts before every
+     * username with that prefix, zero if it has the prefix, positive if it sorts after them.
+     */
+    private static int comparePrefix(String username, String prefix) {
+        int length = Math.min(username.length(), prefix.length());
+        for (int k = 0; k < length; k++) {
+            char x = fold(username.charAt(k));
+            char y = fold(prefix.charAt(k));
+            if (x != y) {
+                return x - y;
+            }
+        }
+        return username.length() < prefix.length() ? -1 : 0;
+    }
+
+    private static boolean containsIgnoreCase(String username, String query) {
+        for (int k = 0; k + query.length() <= username.length(); k++) {
+            if (username.regionMatches(true, k, query, 0, query.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long gram(String value, int start) {
+        return (long) fold(value.charAt(start)) << 32
+                | (long) fold(value.charAt(start + 1)) << 16
+                | fold(value.charAt(start + 2));
+    }
+
+    /**
+     * An immutable, sorted snapshot of usernames with trigram posting lists, in parallel arrays.
+     */
+    static final class Segment {
+
+        static final Segment EMPTY = build(List.of());
+
+        private final String[] usernames;
+        private final long[] ids;
+        private final String[] roles;
+        // Sorted trigrams; the postings of grams[g] are postings[gramStarts[g]] up to postings[gramStarts[g + 1]].
+        private final long[] grams;
+        private final int[] gramStarts;
+        private final int[] postings;
+
+        private Segment(String[] usernames, long[] ids, String[] roles, long[] grams, int[] gramStarts, int[] postings) {
+            this.usernames = usernames;
+            this.ids = ids;
+            this.roles = roles;
+            this.grams = grams;
+            this.gramStarts = gramStarts;
+            this.postings = postings;
+        }
+
+        /**
+         * A user with its folded username, so sorting compares plain strings.
+         */
+        private record Keyed(String folded, UserView user) {
+            static final Comparator<Keyed> ORDER = Comparator.comparing(Keyed::folded)
+                    .thenComparing(keyed -> keyed.user().username());
+        }
+
+        static Segment build(List<UserView> users) {
+            Keyed[] sorted = new Keyed[users.size()];
+            for (int i = 0; i < sorted.length; i++) {
+                UserView user = users.get(i);
+                sorted[i] = new Keyed(fold(user.username()), user);
+            }
+            // The same order as USERNAME_ORDER, several times faster than folding during every comparison.
+            Arrays.sort(sorted, Keyed.ORDER);
+            int size = sorted.length;
+            String[] usernames = new String[size];
+            long[] ids = new long[size];
+            String[] roles = new String[size];
+            Map<String, String> distinctRoles = new HashMap<>();
+            Map<Long, int[]> lists = new HashMap<>();
+            int total = 0;
+            for (int i = 0; i < size; i++) {
+                UserView user = sorted[i].user();
+                String folded = sorted[i].folded();
+                usernames[i] = user.username();
+                ids[i] = user.id();
+                roles[i] = user.role() == null ? null : distinctRoles.computeIfAbsent(user.role(), role -> role);
+                for (int start = 0; start + GRAM_LENGTH <= folded.length(); start++) {
+                    long gram = gram(folded, start);
+                    // list[0] is the number of postings, which follow it.
+                    int[] list = lists.computeIfAbsent(gram, key -> new int[4]);
+                    if (list[0] > 0 && list[list[0]] == i) {
+                        continue; // The trigram occurs twice in this username.
+                    }
+                    if (list[0] + 1 == list.length) {
+                        list = Arrays.copyOf(list, list.length * 2);
+                        lists.put(gram, list);
+                    }
+                    list[++list[0]] = i;
+                    total++;
+                }
+            }
+
+            long[] grams = lists.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+            int[] gramStarts = new int[grams.length + 1];
+            int[] postings = new int[total];
+            int position = 0;
+            for (int g = 0; g < grams.length; g++) {
+                int[] list = lists.get(grams[g]);
+                gramStarts[g] = position;
+                System.arraycopy(list, 1, postings, position, list[0]);
+                position += list[0];
+            }
+            gramStarts[grams.length] = position;
+            return new Segment(usernames, ids, roles, grams, gramStarts, postings);
+        }
+
+        int size() {
+            return usernames.length;
+        }
+
+        UserView view(int i) {
+            return new UserView(ids[i], usernames[i], roles[i]);
+        }
+
+        /**
+         * @return The position of the first username starting with the prefix, or of where it would be.
+         */
+        int lowerBound(String prefix) {
+            int low = 0;
+            int high = usernames.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (comparePrefix(usernames[middle], prefix) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * @return The position after the last username starting with the prefix.
+         */
+        int upperBound(String prefix, int from) {
+            int low = from;
+            int high = usernames.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (comparePrefix(usernames[middle], prefix) <= 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * @return The positions of the usernames containing every trigram of the query. Only these
+         *         can contain the query.
+         */
+        Candidates candidates(String query) {
+            int count = query.length() - GRAM_LENGTH + 1;
+            long[] lists = new long[count];
+            for (int start = 0; start < count; start++) {
+                int g = Arrays.binarySearch(grams, gram(query, start));
+                if (g < 0) {
+                    return new Candidates(this, new int[0]);
+                }
+                // The length of the posting list in the high bits, so sorting puts the shortest first.
+                lists[start] = (long) (gramStarts[g + 1] - gramStarts[g]) << 32 | g;
+            }
+            Arrays.sort(lists);
+            return new Candidates(this, Arrays.stream(lists).mapToInt(list -> (int) list).distinct().toArray());
+        }
+
+        /**
+         * Intersects posting lists: walks the shortest one and looks each position up in the others.
+         * All lists are ascending, so the lookups only move forward, with galloping search.
+         */
+        static final class Candidates {
+
+            private final int[] postings;
+            private final int[] cursors;
+            private final int[] ends;
+
+            private Candidates(Segment segment, int[] gramIndexes) {
+                this.postings = segment.postings;
+                this.cursors = new int[gramIndexes.length];
+                this.ends = new int[gramIndexes.length];
+                for (int k = 0; k < gramIndexes.length; k++) {
+                    cursors[k] = segment.gramStarts[gramIndexes[k]];
+                    ends[k] = segment.gramStarts[gramIndexes[k] + 1];
+                }
+            }
+
+            /**
+             * @return The next position in ascending order, or -1 if there are no more.
+             */
+            int next() {
+                if (cursors.length == 0) {
+                    return -1;
+                }
+                candidates:
+                while (cursors[0] < ends[0]) {
+                    int position = postings[cursors[0]++];
+                    for (int k = 1; k < cursors.length; k++) {
+                        cursors[k] = seek(k, position);
+                        if (cursors[k] == ends[k]) {
+                            // This list has nothing left, so neither has the intersection.
+                            cursors[0] = ends[0];
+                            return -1;
+                        }
+                        if (postings[cursors[k]] != position) {
+                            continue candidates;
+                        }
+                    }
+                    return position;
+                }
+                return -1;
+            }
+
+            /**
+             * @return The first index from cursors[k] on whose posting is at least target, or ends[k].
+             */
+            private int seek(int k, int target) {
+                int low = cursors[k];
+                int end = ends[k];
+                if (low >= end || postings[low] >= target) {
+                    return low;
+                }
+                int step = 1;
+                while (low + step < end && postings[low + step] < target) {
+                    low += step;
+                    step <<= 1;
+                }
+                int high = Math.min(low + step, end);
+                low++;
+                while (low < high) {
+                    int middle = (low + high) >>> 1;
+                    if (postings[middle] < target) {
+                        low = middle + 1;
+                    } else {
+                        high = middle;
+                    }
+                }
+                return low;
+            }
+        }
+    }
+}
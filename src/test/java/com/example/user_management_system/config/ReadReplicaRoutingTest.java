@@ -0,0 +1,120 @@
+package com.example.user_management_system.config;
+
+import com.example.user_management_system.UserManagementSystemApplication;
+import com.example.user_management_system.service.UsernameBloomFilter;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Integration tests for the "replica" profile: the application runs against two embedded PostgreSQL
+ * servers, one as the primary and one as its replica. They don't replicate, so the server a row is
+ * found on tells which one a statement was sent to.
+ */
+class ReadReplicaRoutingTest {
+
+    private static final String ADMIN_CREDENTIALS = "Basic "
+            + Base64.getEncoder().encodeToString("admin:admin123".getBytes(StandardCharsets.UTF_8));
+
+    @TempDir
+    static Path auditDirectory;
+
+    private static EmbeddedPostgres primary;
+    private static EmbeddedPostgres replica;
+    private static ConfigurableApplicationContext application;
+    private static final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @BeforeAll
+    static void start() throws IOException, SQLException {
+        primary = EmbeddedPostgres.start();
+        replica = EmbeddedPostgres.start();
+        // Hibernate creates the schema on the primary only; a real replica would get it through replication.
+        try (Connection connection = replica.getPostgresDatabase().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE SEQUENCE users_seq INCREMENT BY 50");
+            statement.execute("CREATE TABLE users (id BIGINT PRIMARY KEY, username VARCHAR(255) NOT NULL UNIQUE, "
+                    + "password VARCHAR(255) NOT NULL, role VARCHAR(255) NOT NULL)");
+            statement.execute("INSERT INTO users VALUES (1, 'replica-only', '{noop}secret1', 'USER')");
+        }
+        application = new SpringApplicationBuilder(UserManagementSystemApplication.class)
+                .profiles("replica")
+                .run("--server.port=0",
+                        "--spring.datasource.url=" + primary.getJdbcUrl("postgres", "postgres"),
+                        "--spring.datasource.username=postgres",
+                        "--spring.datasource.password=",
+                        "--app.datasource.replica.urls=" + replica.getJdbcUrl("postgres", "postgres"),
+                        "--app.audit.directory=" + auditDirectory);
+    }
+
+    @AfterAll
+    static void stop() throws IOException {
+        if (application != null) {
+            application.close();
+        }
+        replica.close();
+        primary.close();
+    }
+
+    @Test
+    void whenUsernameMayBeTaken_thenItIsLookedUpOnTheReplica() throws Exception {
+        application.getBean(UsernameBloomFilter.class).put("replica-only");
+
+        assertEquals(409, createUser("replica-only").statusCode());
+        assertFalse(exists(primary.getPostgresDatabase(), "replica-only"));
+    }
+
+    @Test
+    void whenRequestReadsAndThenWrites_thenTheWriteGoesToThePrimary() throws Exception {
+        // Makes POST /users look the username up (a read-only transaction) before inserting it.
+        application.getBean(UsernameBloomFilter.class).put("routed");
+
+        assertEquals(201, createUser("routed").statusCode());
+
+        assertTrue(exists(primary.getPostgresDatabase(), "routed"));
+        assertFalse(exists(replica.getPostgresDatabase(), "routed"));
+    }
+
+    private static HttpResponse<String> createUser(String username) throws IOException, InterruptedException {
+        String port = application.getEnvironment().getProperty("local.server.port");
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/users"))
+                .header("Authorization", ADMIN_CREDENTIALS)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"username\":\"" + username + "\",\"password\":\"password123\",\"role\":\"USER\"}"))
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static boolean exists(DataSource dataSource, String username) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT 1 FROM users WHERE username = ?")) {
+            statement.setString(1, username);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next();
+            }
+        }
+    }
+}
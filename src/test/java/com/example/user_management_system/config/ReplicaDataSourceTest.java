@@ -0,0 +1,96 @@
+package com.example.user_management_system.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the ReplicaDataSource and its lag guard.
+ */
+class ReplicaDataSourceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final DataSource primary = mock(DataSource.class);
+    private final Connection primaryConnection = mock(Connection.class);
+
+    /**
+     * A replica whose lag query returns the given number of seconds, or NULL if lag is null.
+     * Its other connections are the given one.
+     */
+    private static DataSource replica(Double lag, Connection connection) throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        Connection lagConnection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(dataSource.getConnection()).thenReturn(lagConnection, connection);
+        when(lagConnection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(ReplicaDataSource.LAG_QUERY)).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getDouble(1)).thenReturn(lag == null ? 0.0 : lag);
+        when(resultSet.wasNull()).thenReturn(lag == null);
+        return dataSource;
+    }
+
+    private ReplicaDataSource replicaDataSource(Map<String, DataSource> replicas) throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        ReplicaDataSource dataSource = new ReplicaDataSource(primary, replicas, Duration.ofSeconds(5), meterRegistry);
+        dataSource.checkLag();
+        return dataSource;
+    }
+
+    private double fallbacks() {
+        return meterRegistry.get("app.datasource.replica.fallback").counter().count();
+    }
+
+    @Test
+    void whenReplicasAreCaughtUp_thenConnectionsComeFromThemInTurn() throws Exception {
+        Connection first = mock(Connection.class);
+        Connection second = mock(Connection.class);
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", replica(0.0, first));
+        replicas.put("replica-2", replica(1.5, second));
+        ReplicaDataSource dataSource = replicaDataSource(replicas);
+
+        assertSame(first, dataSource.getConnection());
+        assertSame(second, dataSource.getConnection());
+        assertEquals(0.0, fallbacks());
+        assertEquals(1.5, meterRegistry.get("app.datasource.replica.lag").tag("replica", "replica-2").gauge().value());
+    }
+
+    @Test
+    void whenReplicaLagsOrLagIsUnknown_thenPrimaryIsUsed() throws Exception {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", replica(30.0, mock(Connection.class)));
+        replicas.put("replica-2", replica(null, mock(Connection.class)));
+        ReplicaDataSource dataSource = replicaDataSource(replicas);
+
+        assertSame(primaryConnection, dataSource.getConnection());
+        assertEquals(1.0, fallbacks());
+    }
+
+    @Test
+    void whenReplicaGivesNoConnection_thenPrimaryIsUsedUntilTheNextCheck() throws Exception {
+        DataSource broken = replica(0.0, null);
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", broken);
+        ReplicaDataSource dataSource = replicaDataSource(replicas);
+        when(broken.getConnection()).thenThrow(new SQLException("Connection refused"));
+
+        assertSame(primaryConnection, dataSource.getConnection());
+        assertSame(primaryConnection, dataSource.getConnection());
+        assertEquals(2.0, fallbacks());
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.user_management_system.config;
+
+import com.example.user_management_system.dto.QueryShapeStats;
+import com.example.user_management_system.service.SlowQueryLog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the StatementTimingDataSource and the SlowQueryLog it reports to, with a mocked driver.
+ */
+class StatementTimingDataSourceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final DataSource target = mock(DataSource.class);
+    private final Connection connection = mock(Connection.class);
+
+    private DataSource timedDataSource(Duration threshold, double sampleRate) throws SQLException {
+        when(target.getConnection()).thenReturn(connection);
+        return new StatementTimingDataSource(target, new SlowQueryLog(meterRegistry, threshold, sampleRate, 1000));
+    }
+
+    private double logged(String reason) {
+        return meterRegistry.get("jdbc.statements.logged").tag("reason", reason).counter().count();
+    }
+
+    @Test
+    void whenStatementsRun_thenTheyAreAggregatedByShape() throws SQLException {
+        SlowQueryLog slowQueryLog = new SlowQueryLog(meterRegistry, Duration.ofHours(1), 0, 1000);
+        when(target.getConnection()).thenReturn(connection);
+        DataSource dataSource = new StatementTimingDataSource(target, slowQueryLog);
+        Statement statement = mock(Statement.class);
+        PreparedStatement prepared = mock(PreparedStatement.class);
+        when(connection.createStatement()).thenReturn(statement);
+        when(connection.prepareStatement(anyString())).thenReturn(prepared);
+
+        try (Connection timed = dataSource.getConnection()) {
+            timed.createStatement().execute("select * from users where id = 1");
+            timed.createStatement().execute("select  *  from users where id = 22");
+            timed.createStatement().execute("select * from users where username in ('a', 'b''c')");
+            PreparedStatement timedPrepared = timed.prepareStatement("select * from users where username = ?");
+            timedPrepared.setString(1, "a");
+            timedPrepared.executeQuery();
+        }
+
+        List<QueryShapeStats> shapes = slowQueryLog.topShapes(10);
+        assertEquals(3, shapes.size());
+        QueryShapeStats byId = shapes.stream()
+                .filter(shape -> shape.shape().equals("select * from users where id = ?")).findFirst().orElseThrow();
+        assertEquals(2, byId.count());
+        assertEquals(1, shapes.stream()
+                .filter(shape -> shape.shape().equals("select * from users where username in (?...)")).count());
+        verify(prepared).setString(1, "a");
+        assertEquals(0, logged("slow") + logged("sampled"));
+    }
+
+    @Test
+    void whenStatementIsOverThreshold_thenItIsLogged() throws SQLException {
+        DataSource dataSource = timedDataSource(Duration.ZERO, 0);
+        PreparedStatement prepared = mock(PreparedStatement.class);
+        when(connection.prepareStatement(anyString())).thenReturn(prepared);
+
+        try (Connection timed = dataSource.getConnection()) {
+            PreparedStatement timedPrepared = timed.prepareStatement("insert into users values (?, ?)");
+            timedPrepared.setLong(1, 1);
+            timedPrepared.setString(2, "a");
+            timedPrepared.addBatch();
+            timedPrepared.setLong(1, 2);
+            timedPrepared.setString(2, "b");
+            timedPrepared.addBatch();
+            timedPrepared.executeBatch();
+            assertSame(timed, timedPrepared.getConnection());
+        }
+
+        assertEquals(1, logged("slow"));
+        verify(prepared).executeBatch();
+    }
+
+    @Test
+    void whenStatementIsUnderThreshold_thenItIsOnlyLoggedWhenSampled() throws SQLException {
+        DataSource dataSource = timedDataSource(Duration.ofHours(1), 1.0);
+        Statement statement = mock(Statement.class);
+        when(connection.createStatement()).thenReturn(statement);
+
+        try (Connection timed = dataSource.getConnection()) {
+            timed.createStatement().executeUpdate("delete from users where id = 1");
+        }
+
+        assertEquals(0, logged("slow"));
+        assertEquals(1, logged("sampled"));
+    }
+
+    @Test
+    void whenStatementFails_thenTheDriverExceptionIsThrownAndTheStatementStillCounted() throws SQLException {
+        SlowQueryLog slowQueryLog = new SlowQueryLog(meterRegistry, Duration.ofHours(1), 0, 1000);
+        when(target.getConnection()).thenReturn(connection);
+        DataSource dataSource = new StatementTimingDataSource(target, slowQueryLog);
+        Statement statement = mock(Statement.class);
+        SQLException failure = new SQLException("syntax error");
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.execute("selec 1")).thenThrow(failure);
+
+        try (Connection timed = dataSource.getConnection()) {
+            assertSame(failure, assertThrows(SQLException.class, () -> timed.createStatement().execute("selec 1")));
+        }
+
+        assertEquals(1, slowQueryLog.topShapes(10).get(0).count());
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.user_management_system.controller;
+
+import com.example.user_management_system.event.AuditEvent;
+import com.example.user_management_system.repository.UserRepository;
+import com.example.user_management_system.service.AuditService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.verify;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for the AuthController and the bearer tokens it issues.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class AuthControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // The built-in users are used, so the repository only has to stay away from the database.
+    @MockitoBean
+    private UserRepository userRepository;
+
+    @MockitoSpyBean
+    private AuditService auditService;
+
+    @Test
+    void whenLoggedInWithPassword_thenTokenGrantsAccessWithTheSameRole() throws Exception {
+        MvcResult result = mockMvc.perform(post("/auth/token").with(httpBasic("intern", "password123")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token_type").value("Bearer"))
+                .andReturn();
+        String token = objectMapper.readTree(result.getResponse().getContentAsString()).get("access_token").asText();
+
+        mockMvc.perform(get("/user").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/admin").header("Authorization", "Bearer " + token))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/auth/token").header("Authorization", "Bearer " + token))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void whenTokenIsInvalid_thenUnauthorized() throws Exception {
+        mockMvc.perform(get("/user").header("Authorization", "Bearer forged.token"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void whenPasswordIsGuessedRepeatedly_thenLoginIsThrottledBeforeHashing() throws Exception {
+        mockMvc.perform(get("/user").with(httpBasic("guessed", "wrong")))
+                .andExpect(status().isUnauthorized());
+        // The limit is 10 failures per username; a few extra cover a window boundary during the loop.
+        for (int i = 0; i < 12; i++) {
+            mockMvc.perform(get("/user").with(httpBasic("guessed", "wrong" + i)));
+        }
+
+        mockMvc.perform(get("/user").with(httpBasic("guessed", "wrong")))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+    }
+
+    @Test
+    void whenLoggingIn_thenSuccessesAndFailuresAreAudited() throws Exception {
+        mockMvc.perform(get("/user").with(httpBasic("intern", "password123")))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/user").with(httpBasic("audited", "wrong")))
+                .andExpect(status().isUnauthorized());
+
+        verify(auditService).record(eq(AuditEvent.Type.LOGIN_SUCCEEDED), eq("intern"), eq("intern"), any());
+        verify(auditService).record(eq(AuditEvent.Type.LOGIN_FAILED), eq("audited"), eq("audited"),
+                startsWith("BadCredentialsException"));
+    }
+
+    @Test
+    void whenNotLoggedIn_thenNoToken() throws Exception {
+        mockMvc.perform(post("/auth/token"))
+                .andExpect(status().isUnauthorized());
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.user_management_system.controller;
 
+import com.example.user_management_system.dto.UserView;
 import com.example.user_management_system.entity.User;
 import com.example.user_management_system.repository.UserRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -7,19 +8,35 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.json.JsonCompareMode;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
@@ -41,7 +58,7 @@ class UserControllerTest {
 
     // We only need to mock the UserRepository to prevent the tests from hitting the actual database.
     // The rest of the application context (Security, PasswordEncoder, etc.) is real.
-    @MockBean
+    @MockitoBean
     private UserRepository userRepository;
 
     @Test
@@ -82,21 +99,110 @@ class UserControllerTest {
                 .andExpect(status().isUnauthorized());
     }
 
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void whenSearchUsersAfterCreatingOne_thenItIsFound() throws Exception {
+        when(userRepository.insertIfAbsent(eq("searchable"), anyString(), eq("USER"))).thenReturn(Optional.of(42L));
+        mockMvc.perform(post("/users")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(userJson(new User(null, "searchable", "password123", "USER"))))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/users/autocomplete").param("q", "ARCH").param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasMore").value(false))
+                .andExpect(jsonPath("$.users[0].id").value(42))
+                .andExpect(jsonPath("$.users[0].username").value("searchable"))
+                .andExpect(jsonPath("$.users[0].password").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void whenSearchUsersBeyondTheResultLimit_thenBadRequest() throws Exception {
+        mockMvc.perform(get("/users/autocomplete").param("q", "a").param("page", "10").param("size", "100"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @WithMockUser(username = "admin", roles = "ADMIN")
     void whenCreateUserAsAdmin_thenSucceed() throws Exception {
         User newUser = new User(null, "testuser","password123", "USER");
-        User savedUser = new User(1L, "testuser","some_encoded_password", "USER");
 
         // We only need to mock the repository methods that are called.
         when(userRepository.findByUsername("testuser")).thenReturn(Optional.empty());
-        when(userRepository.save(any(User.class))).thenReturn(savedUser);
+        when(userRepository.insertIfAbsent(eq("testuser"), anyString(), eq("USER"))).thenReturn(Optional.of(1L));
 
         mockMvc.perform(post("/users")
                         .with(csrf()) // Include CSRF token for POST requests in tests
                         .contentType(MediaType.APPLICATION_JSON)
-                        .content(objectMapper.writeValueAsString(newUser)))
-                .andExpect(status().isCreated());
+                        .content(userJson(newUser)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(1))
+                .andExpect(jsonPath("$.username").value("testuser"))
+                .andExpect(jsonPath("$.password").doesNotExist())
+                .andExpect(jsonPath("$._links").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void whenGetUserAsAdmin_thenViewWithoutPasswordIsReturned() throws Exception {
+        when(userRepository.findViewById(7L)).thenReturn(Optional.of(new UserView(7L, "viewed", "USER")));
+
+        mockMvc.perform(get("/users/7"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"id\":7,\"username\":\"viewed\",\"role\":\"USER\"}", JsonCompareMode.STRICT));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void whenGetUnknownUser_thenNotFound() throws Exception {
+        when(userRepository.findViewById(8L)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/users/8"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void whenListUsersAsAdmin_thenPageAfterTheGivenIdIsReturned() throws Exception {
+        when(userRepository.findViewsAfter(eq(10L), any()))
+                .thenReturn(List.of(new UserView(11L, "eleven", "USER"), new UserView(12L, "twelve", "ADMIN")));
+
+        mockMvc.perform(get("/users").param("after", "10").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[1].username").value("twelve"))
+                .andExpect(jsonPath("$[0].password").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void whenCreateUserWithTakenUsername_thenIsConflict() throws Exception {
+        User newUser = new User(null, "testuser","password123", "USER");
+
+        // The insert reports a conflict by returning no id.
+        when(userRepository.insertIfAbsent(eq("testuser"), anyString(), eq("USER"))).thenReturn(Optional.empty());
+
+        mockMvc.perform(post("/users")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(userJson(newUser)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("Username 'testuser' is already taken."));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void whenCreateUserWithInvalidUsername_thenIsBadRequest() throws Exception {
+        User newUser = new User(null, "ab", "password123", "USER");
+
+        mockMvc.perform(post("/users")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(userJson(newUser)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400))
+                .andExpect(jsonPath("$.errors[0]").value("Username must be between 3 and 20 characters"));
     }
 
     @Test
@@ -107,7 +213,112 @@ class UserControllerTest {
         mockMvc.perform(post("/users")
                         .with(csrf())
                         .contentType(MediaType.APPLICATION_JSON)
-                        .content(objectMapper.writeValueAsString(newUser)))
+                        .content(userJson(newUser)))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void whenImportUsersAsAdmin_thenEveryRowIsReported() throws Exception {
+        when(userRepository.findExistingUsernames(anyCollection())).thenReturn(Set.of("taken"));
+
+        String ndjson = String.join("\n",
+                "{\"username\":\"alice\",\"password\":\"password123\",\"role\":\"USER\"}",
+                "{\"username\":\"al\",\"password\":\"password123\",\"role\":\"USER\"}",
+                "{\"username\":\"alice\",\"password\":\"password123\",\"role\":\"USER\"}",
+                "{\"username\":\"taken\",\"password\":\"password123\",\"role\":\"USER\"}");
+
+        mockMvc.perform(post("/users/import")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.failed").value(3))
+                .andExpect(jsonPath("$.rows[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.rows[1].status").value("INVALID"))
+                .andExpect(jsonPath("$.rows[2].status").value("DUPLICATE"))
+                .andExpect(jsonPath("$.rows[3].status").value("DUPLICATE"));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void whenImportedRowsBreakConstraints_thenOnlyUsernameConflictsAreDuplicates() throws Exception {
+        when(userRepository.findExistingUsernames(anyCollection())).thenReturn(Set.of());
+        when(userRepository.saveAll(anyCollection())).thenThrow(new DataIntegrityViolationException("batch failed",
+                new SQLException("duplicate key value violates unique constraint \"users_username_key\"", "23505")));
+        when(userRepository.saveAndFlush(any(User.class))).thenAnswer(invocation -> {
+            User user = invocation.getArgument(0);
+            throw user.getUsername().equals("bob")
+                    ? new DataIntegrityViolationException("insert failed", new SQLException(
+                            "duplicate key value violates unique constraint \"users_username_key\"", "23505"))
+                    : new DataIntegrityViolationException("insert failed", new SQLException(
+                            "new row for relation \"users\" violates check constraint \"users_role_check\"", "23514"));
+        });
+
+        String ndjson = String.join("\n",
+                "{\"username\":\"bob\",\"password\":\"password123\",\"role\":\"USER\"}",
+                "{\"username\":\"carol\",\"password\":\"password123\",\"role\":\"USER\"}");
+
+        mockMvc.perform(post("/users/import")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(0))
+                .andExpect(jsonPath("$.failed").value(2))
+                .andExpect(jsonPath("$.rows[0].status").value("DUPLICATE"))
+                .andExpect(jsonPath("$.rows[1].status").value("ERROR"))
+                .andExpect(jsonPath("$.rows[1].errors[0]").value(containsString("users_role_check")));
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = "USER")
+    void whenImportUsersAsUser_thenIsForbidden() throws Exception {
+        mockMvc.perform(post("/users/import")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
                 .andExpect(status().isForbidden());
     }
-}
\ No newline at end of file
+
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void whenExportUsersAsCsv_thenRowsAreStreamedWithoutPasswords() throws Exception {
+        when(userRepository.findViewsAfter(anyLong(), any())).thenReturn(List.of());
+        when(userRepository.findViewsAfter(eq(0L), any())).thenReturn(List.of(
+                new UserView(1L, "alice", "USER"),
+                new UserView(2L, "bob", "ADMIN")));
+
+        MvcResult result = mockMvc.perform(get("/users/export").param("format", "csv")).andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string("id,username,role\n1,alice,USER\n2,bob,ADMIN\n"));
+        assertEquals(Duration.ofMinutes(30).toMillis(), result.getRequest().getAsyncContext().getTimeout());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void whenExportedCellLooksLikeAFormula_thenItIsWrittenAsText() throws Exception {
+        when(userRepository.findViewsAfter(anyLong(), any())).thenReturn(List.of());
+        when(userRepository.findViewsAfter(eq(0L), any())).thenReturn(List.of(
+                new UserView(1L, "=HYPERLINK(\"http://evil\")", "USER"),
+                new UserView(2L, "@sum", "-ADMIN")));
+
+        MvcResult result = mockMvc.perform(get("/users/export").param("format", "csv")).andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(
+                        "id,username,role\n1,\"'=HYPERLINK(\"\"http://evil\"\")\",USER\n2,'@sum,'-ADMIN\n"));
+    }
+
+    /**
+     * Writes a user as a request body. The User entity itself never writes its password.
+     */
+    private String userJson(User user) throws Exception {
+        return objectMapper.writeValueAsString(
+                Map.of("username", user.getUsername(), "password", user.getPassword(), "role", user.getRole()));
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.user_management_system.controller;
+
+import com.example.user_management_system.entity.User;
+import com.example.user_management_system.event.UserChangedEvent;
+import com.example.user_management_system.repository.UserRepository;
+import com.example.user_management_system.security.AccessTokenService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for updating and deleting users through UserController.
+ * The repository is the real one, so the JPA entity listener publishes the UserChangedEvents
+ * that the caches and the access tokens react to.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@RecordApplicationEvents
+class UserUpdateDeleteTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private AccessTokenService accessTokenService;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    private final List<Long> created = new ArrayList<>();
+
+    @AfterEach
+    void deleteCreatedUsers() {
+        created.stream().filter(userRepository::existsById).forEach(userRepository::deleteById);
+    }
+
+    private User save(String username, String role) {
+        User user = userRepository.save(new User(null, username, passwordEncoder.encode("old-secret"), role));
+        created.add(user.getId());
+        return user;
+    }
+
+    private String body(String username, String password, String role) throws Exception {
+        return objectMapper.writeValueAsString(Map.of("username", username, "password", password, "role", role));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void whenUpdateUserAsAdmin_thenPasswordIsEncodedAndChangeIsPublished() throws Exception {
+        User user = save("update-me", "ADMIN");
+        String token = accessTokenService.issue(UsernamePasswordAuthenticationToken.authenticated(
+                "update-me", null, AuthorityUtils.createAuthorityList("ROLE_ADMIN"))).value();
+
+        mockMvc.perform(put("/users/{id}", user.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body("updated", "new-secret", "USER")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(user.getId()))
+                .andExpect(jsonPath("$.username").value("updated"))
+                .andExpect(jsonPath("$.role").value("USER"))
+                .andExpect(jsonPath("$.password").doesNotExist());
+
+        User stored = userRepository.findById(user.getId()).orElseThrow();
+        assertEquals("updated", stored.getUsername());
+        assertEquals("USER", stored.getRole());
+        assertTrue(passwordEncoder.matches("new-secret", stored.getPassword()));
+        assertTrue(events.stream(UserChangedEvent.class).anyMatch(event -> event.type() == UserChangedEvent.Type.UPDATED
+                && event.username().equals("updated") && event.previousUsername().equals("update-me")));
+        // The demoted admin's token stops working.
+        assertThrows(BadCredentialsException.class, () -> accessTokenService.authenticate(token));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void whenUpdateUserToTakenUsername_thenIsConflict() throws Exception {
+        User user = save("rename-me", "USER");
+        save("already-taken", "USER");
+
+        mockMvc.perform(put("/users/{id}", user.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body("already-taken", "new-secret", "USER")))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("Username 'already-taken' is already taken."));
+
+        assertEquals("rename-me", userRepository.findById(user.getId()).orElseThrow().getUsername());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void whenUpdateUserWithInvalidData_thenIsBadRequest() throws Exception {
+        User user = save("keep-me", "USER");
+
+        mockMvc.perform(put("/users/{id}", user.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body("ab", "", "USER")))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void whenDeleteUserAsAdmin_thenItIsGoneAndChangeIsPublished() throws Exception {
+        User user = save("delete-me", "USER");
+
+        mockMvc.perform(delete("/users/{id}", user.getId()))
+                .andExpect(status().isNoContent());
+
+        assertFalse(userRepository.existsById(user.getId()));
+        assertTrue(events.stream(UserChangedEvent.class).anyMatch(event -> event.type() == UserChangedEvent.Type.DELETED
+                && event.id().equals(user.getId())));
+        mockMvc.perform(get("/users/{id}", user.getId()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void whenUpdateOrDeleteUnknownUser_thenIsNotFound() throws Exception {
+        mockMvc.perform(put("/users/{id}", 999_999)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body("nobody", "new-secret", "USER")))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(delete("/users/{id}", 999_999))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = "USER")
+    void whenUpdateOrDeleteAsUser_thenIsForbidden() throws Exception {
+        User user = save("not-yours", "USER");
+
+        mockMvc.perform(put("/users/{id}", user.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body("not-yours", "new-secret", "ADMIN")))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(delete("/users/{id}", user.getId()))
+                .andExpect(status().isForbidden());
+        assertTrue(userRepository.existsById(user.getId()));
+    }
+}
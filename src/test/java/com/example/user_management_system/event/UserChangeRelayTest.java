@@ -0,0 +1,123 @@
+package com.example.user_management_system.event;
+
+import com.example.user_management_system.UserManagementSystemApplication;
+import com.example.user_management_system.entity.User;
+import com.example.user_management_system.repository.UserRepository;
+import com.example.user_management_system.security.DatabaseUserDetailsService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Integration tests for the UserChangeRelay: two instances of the application, each with its own
+ * caches, run against the configured database, and changes made on one must reach the other.
+ * Node A has a single pooled connection, so a change must be logged without needing a second one
+ * while the transaction that made it completes.
+ */
+class UserChangeRelayTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @TempDir
+    static Path auditDirectory;
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() {
+        nodeA = startNode("a", "--spring.datasource.hikari.maximum-pool-size=1",
+                "--spring.datasource.hikari.connection-timeout=1000");
+        nodeB = startNode("b");
+    }
+
+    private static ConfigurableApplicationContext startNode(String name, String... extraArgs) {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--app.invalidation.poll-interval=100ms",
+                "--app.audit.directory=" + auditDirectory.resolve(name)));
+        args.addAll(List.of(extraArgs));
+        return new SpringApplicationBuilder(UserManagementSystemApplication.class).run(args.toArray(String[]::new));
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        nodeA.close();
+        nodeB.close();
+    }
+
+    @Test
+    void whenPasswordIsChangedOnOneNode_thenOtherNodeDropsItsCachedCopies() {
+        UserRepository repositoryA = nodeA.getBean(UserRepository.class);
+        UserRepository repositoryB = nodeB.getBean(UserRepository.class);
+        DatabaseUserDetailsService userDetailsB = nodeB.getBean(DatabaseUserDetailsService.class);
+        User user = repositoryA.save(new User(null, "relay-updated", "{noop}old-secret", "USER"));
+        // Cache the user on node B, in the user details cache and in the second-level cache.
+        assertEquals("{noop}old-secret", userDetailsB.loadUserByUsername("relay-updated").getPassword());
+        repositoryB.findById(user.getId()).orElseThrow();
+
+        user.setPassword("{noop}new-secret");
+        repositoryA.save(user);
+
+        awaitTrue(() -> "{noop}new-secret".equals(userDetailsB.loadUserByUsername("relay-updated").getPassword()));
+        assertEquals("{noop}new-secret", repositoryB.findById(user.getId()).orElseThrow().getPassword());
+        assertEquals(0, nodeA.getBean(MeterRegistry.class).get("users.changes.failures")
+                .tag("operation", "write").counter().count());
+        repositoryA.delete(user);
+    }
+
+    @Test
+    void whenUserIsDeletedOnOneNode_thenOtherNodeNoLongerFindsIt() {
+        UserRepository repositoryA = nodeA.getBean(UserRepository.class);
+        DatabaseUserDetailsService userDetailsB = nodeB.getBean(DatabaseUserDetailsService.class);
+        User user = repositoryA.save(new User(null, "relay-deleted", "{noop}secret", "USER"));
+        userDetailsB.loadUserByUsername("relay-deleted");
+        double receivedByA = received(nodeA);
+
+        repositoryA.delete(user);
+
+        awaitTrue(() -> {
+            try {
+                userDetailsB.loadUserByUsername("relay-deleted");
+                return false;
+            } catch (UsernameNotFoundException e) {
+                return true;
+            }
+        });
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsB.loadUserByUsername("relay-deleted"));
+        // A node does not apply its own changes a second time.
+        assertEquals(receivedByA, received(nodeA));
+    }
+
+    private static double received(ConfigurableApplicationContext node) {
+        return node.getBean(MeterRegistry.class).get("users.changes.received").counter().count();
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "The change did not reach the other node in time");
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(e);
+            }
+        }
+    }
+}
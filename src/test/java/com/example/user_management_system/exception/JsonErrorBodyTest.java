@@ -0,0 +1,60 @@
+package com.example.user_management_system.exception;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit tests for the JsonErrorBody templates.
+ */
+class JsonErrorBodyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private JsonErrorBody template() {
+        Map<String, Object> constantFields = new LinkedHashMap<>();
+        constantFields.put("status", 409);
+        constantFields.put("message", "Conflict");
+        return JsonErrorBody.withVariableField(objectMapper, constantFields, "error");
+    }
+
+    @Test
+    void whenValueNeedsEscaping_thenBodyIsStillValidJson() throws Exception {
+        String value = "Username 'a\"b\\c' is already taken.\né";
+        JsonNode body = objectMapper.readTree(template().render(value));
+
+        assertEquals(409, body.get("status").asInt());
+        assertEquals("Conflict", body.get("message").asText());
+        assertEquals(value, body.get("error").asText());
+    }
+
+    @Test
+    void whenValueIsAList_thenItIsWrittenAsAnArray() throws Exception {
+        JsonNode body = objectMapper.readTree(template().render(List.of("Too short", "Must not be \"blank\"")));
+
+        assertEquals(2, body.get("error").size());
+        assertEquals("Must not be \"blank\"", body.get("error").get(1).asText());
+        assertEquals("{\"status\":409,\"message\":\"Conflict\",\"error\":[]}",
+                new String(template().render(List.of()), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void whenWrittenToResponse_thenBodyMatchesRenderedBytes() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        template().write(response, 409, "/users/é");
+
+        assertEquals(409, response.getStatus());
+        assertEquals("application/json", response.getContentType());
+        assertEquals(response.getContentAsByteArray().length, response.getContentLength());
+        assertEquals(new String(template().render("/users/é"), StandardCharsets.UTF_8),
+                response.getContentAsString(StandardCharsets.UTF_8));
+    }
+}
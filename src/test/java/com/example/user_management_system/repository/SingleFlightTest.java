@@ -0,0 +1,158 @@
+package com.example.user_management_system.repository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for SingleFlight, with lookups that block until the test releases them.
+ */
+class SingleFlightTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private SingleFlight<String, String> singleFlight;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        singleFlight = new SingleFlight<>("test", Duration.ofSeconds(5), meterRegistry);
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void whenLookupsOfTheSameKeyOverlap_thenOneIsRunAndAllGetItsResult() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<CompletableFuture<String>> callers = new ArrayList<>();
+        callers.add(async(() -> singleFlight.execute("key", () -> {
+            runs.incrementAndGet();
+            await(release);
+            return "value";
+        }, value -> value + "-shared")));
+        awaitCallers(1);
+        for (int i = 0; i < 3; i++) {
+            callers.add(async(() -> singleFlight.execute("key", () -> {
+                runs.incrementAndGet();
+                return "other";
+            }, value -> value + "-shared")));
+        }
+        awaitCallers(4);
+
+        release.countDown();
+
+        assertEquals("value", callers.get(0).get(5, TimeUnit.SECONDS));
+        for (CompletableFuture<String> follower : callers.subList(1, callers.size())) {
+            assertEquals("value-shared", follower.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, runs.get());
+        assertEquals(1, meterRegistry.get("users.lookups.executed").counter().count());
+        assertEquals(3, meterRegistry.get("users.lookups.shared").counter().count());
+        assertEquals(4, meterRegistry.get("users.lookups.callers").summary().totalAmount());
+        assertEquals(0, meterRegistry.get("users.lookups.in.flight").gauge().value());
+    }
+
+    @Test
+    void whenTheLookupFails_thenEveryCallerGetsItsException() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("database down");
+        CompletableFuture<String> leader = async(() -> singleFlight.execute("key", () -> {
+            await(release);
+            throw failure;
+        }, value -> value));
+        awaitCallers(1);
+        CompletableFuture<String> follower = async(
+                () -> singleFlight.execute("key", () -> "other", value -> value));
+        awaitCallers(2);
+
+        release.countDown();
+
+        assertSame(failure, assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS)).getCause());
+        assertSame(failure, assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS)).getCause());
+        // A failure is not remembered.
+        assertEquals("value", singleFlight.execute("key", () -> "value", value -> value));
+    }
+
+    @Test
+    void whenTheLookupTakesTooLong_thenFollowersTimeOutAndTheLeaderGetsItsResult() throws Exception {
+        singleFlight = new SingleFlight<>("slow", Duration.ofMillis(50), meterRegistry);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> leader = async(() -> singleFlight.execute("key", () -> {
+            await(release);
+            return "value";
+        }, value -> value));
+        awaitCallers(1);
+
+        assertThrows(QueryTimeoutException.class, () -> singleFlight.execute("key", () -> "other", value -> value));
+
+        release.countDown();
+        assertEquals("value", leader.get(5, TimeUnit.SECONDS));
+        assertEquals(1, meterRegistry.get("users.lookups.shared.timeouts").tag("method", "slow").counter().count());
+    }
+
+    @Test
+    void whenKeyIsForgotten_thenTheNextCallerRunsANewLookup() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> leader = async(() -> singleFlight.execute("key", () -> {
+            await(release);
+            return "before";
+        }, value -> value));
+        awaitCallers(1);
+
+        singleFlight.forget("key");
+
+        assertEquals("after", singleFlight.execute("key", () -> "after", value -> value));
+        release.countDown();
+        assertEquals("before", leader.get(5, TimeUnit.SECONDS));
+        assertEquals(2, meterRegistry.get("users.lookups.executed").counter().count());
+    }
+
+    private <T> CompletableFuture<T> async(Supplier<T> call) {
+        return CompletableFuture.supplyAsync(call, executor);
+    }
+
+    private void awaitCallers(int expected) {
+        awaitTrue(() -> singleFlight.callers("key") == expected);
+    }
+
+    private static void awaitTrue(Supplier<Boolean> condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.get()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met in time");
+            Thread.yield();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError(e);
+        }
+    }
+}
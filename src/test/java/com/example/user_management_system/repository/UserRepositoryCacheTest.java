@@ -0,0 +1,106 @@
+package com.example.user_management_system.repository;
+
+import com.example.user_management_system.entity.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Integration tests for the second-level cache behind UserRepository lookups.
+ * Like the rest of the integration tests, they run against the configured database.
+ */
+@SpringBootTest
+class UserRepositoryCacheTest {
+
+    private static final String USERNAME = "l2-cached";
+    private static final String RENAMED = "l2-renamed";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        deleteTestUsers();
+    }
+
+    @AfterEach
+    void deleteTestUsers() {
+        for (String username : List.of(USERNAME, RENAMED)) {
+            userRepository.findByUsername(username).ifPresent(userRepository::delete);
+        }
+    }
+
+    @Test
+    void whenUserWasReadBefore_thenLookupsByUsernameAndIdSkipTheDatabase() {
+        Long id = userRepository.save(new User(null, USERNAME, "{noop}secret1", "USER")).getId();
+        userRepository.findByUsername(USERNAME).orElseThrow();
+        statistics.clear();
+
+        assertEquals(USERNAME, userRepository.findByUsername(USERNAME).orElseThrow().getUsername());
+        assertEquals(USERNAME, userRepository.findById(id).orElseThrow().getUsername());
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getNaturalIdCacheHitCount());
+        assertEquals(2, statistics.getSecondLevelCacheHitCount());
+        assertNotNull(meterRegistry.find("hibernate.second.level.cache.requests").tag("region", User.CACHE_REGION).meter());
+    }
+
+    @Test
+    void whenPasswordIsUpdatedInBulk_thenCachedUserIsInvalidated() {
+        userRepository.save(new User(null, USERNAME, "{noop}secret1", "USER"));
+        userRepository.findByUsername(USERNAME).orElseThrow();
+
+        assertEquals(1, userRepository.updatePassword(USERNAME, "{noop}secret2"));
+
+        assertEquals("{noop}secret2", userRepository.findByUsername(USERNAME).orElseThrow().getPassword());
+    }
+
+    @Test
+    void whenUserIsRenamedOrDeleted_thenOldUsernameIsNoLongerFound() {
+        User user = userRepository.save(new User(null, USERNAME, "{noop}secret1", "USER"));
+        userRepository.findByUsername(USERNAME).orElseThrow();
+
+        user.setUsername(RENAMED);
+        userRepository.save(user);
+
+        assertTrue(userRepository.findByUsername(USERNAME).isEmpty());
+        User renamed = userRepository.findByUsername(RENAMED).orElseThrow();
+
+        userRepository.delete(renamed);
+
+        assertTrue(userRepository.findByUsername(RENAMED).isEmpty());
+        assertTrue(userRepository.findById(renamed.getId()).isEmpty());
+    }
+
+    @Test
+    void whenCalledOutsideOfATransaction_thenLookupByUsernameIsCoalesced() {
+        userRepository.save(new User(null, USERNAME, "{noop}secret1", "USER"));
+        double executed = meterRegistry.get("users.lookups.executed").tag("method", "findByUsername").counter().count();
+
+        assertEquals(USERNAME, userRepository.findByUsername(USERNAME).orElseThrow().getUsername());
+
+        assertEquals(executed + 1,
+                meterRegistry.get("users.lookups.executed").tag("method", "findByUsername").counter().count());
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.user_management_system.repository;
+
+import com.example.user_management_system.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests that Spring Data REST exports nothing of UserRepository, so users are only
+ * read and written through UserController.
+ * The repository must be the real one: Spring Data REST doesn't export a mocked repository.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class UserRepositoryRestExportTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void whenListSearches_thenIsNotFound() throws Exception {
+        mockMvc.perform(get("/users/search"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void whenCallQueryAsSearch_thenIsNotFound() throws Exception {
+        mockMvc.perform(get("/users/search/findByUsername").param("username", "admin"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/users/search/updatePassword")
+                        .param("username", "admin")
+                        .param("password", "{noop}hijacked"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/users/search/insertIfAbsent")
+                        .param("username", "intruder")
+                        .param("password", "{noop}hijacked")
+                        .param("role", "ADMIN"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void whenPatchUser_thenItIsNotWrittenBehindUserController() throws Exception {
+        User user = userRepository.save(new User(null, "rest-patched", "{noop}secret1", "USER"));
+        try {
+            mockMvc.perform(patch("/users/{id}", user.getId())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"password\":\"hijacked\"}"))
+                    .andExpect(status().isMethodNotAllowed());
+            assertEquals("{noop}secret1", userRepository.findById(user.getId()).orElseThrow().getPassword());
+        } finally {
+            userRepository.deleteById(user.getId());
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.user_management_system.security;
+
+import com.example.user_management_system.event.UserChangedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the AccessTokenService, with a clock the tests move forward by hand.
+ */
+class AccessTokenServiceTest {
+
+    private final MutableClock clock = new MutableClock();
+    private final AccessTokenService tokenService = new AccessTokenService(
+            new ObjectMapper(), Duration.ofMinutes(15), Duration.ofHours(1), "test-secret", 1000, clock);
+    private final Authentication admin = UsernamePasswordAuthenticationToken.authenticated(
+            "admin", null, AuthorityUtils.createAuthorityList("ROLE_ADMIN"));
+
+    @Test
+    void whenTokenIsValid_thenUserAndRolesAreRestored() {
+        String token = tokenService.issue(admin).value();
+
+        Authentication result = tokenService.authenticate(token);
+
+        assertEquals("admin", result.getName());
+        assertTrue(result.isAuthenticated());
+        assertEquals(AuthorityUtils.createAuthorityList("ROLE_ADMIN"), result.getAuthorities());
+    }
+
+    @Test
+    void whenPayloadIsTampered_thenTokenIsRejected() {
+        String token = tokenService.issue(UsernamePasswordAuthenticationToken.authenticated(
+                "intern", null, AuthorityUtils.createAuthorityList("ROLE_USER"))).value();
+        String adminPayload = tokenService.issue(admin).value().split("\\.")[0];
+
+        String forged = adminPayload + "." + token.split("\\.")[1];
+
+        assertThrows(BadCredentialsException.class, () -> tokenService.authenticate(forged));
+        assertThrows(BadCredentialsException.class, () -> tokenService.authenticate("not-a-token"));
+    }
+
+    @Test
+    void whenTokenIsExpired_thenItIsRejected() {
+        String token = tokenService.issue(admin).value();
+
+        clock.advance(Duration.ofMinutes(16));
+
+        assertThrows(BadCredentialsException.class, () -> tokenService.authenticate(token));
+    }
+
+    @Test
+    void whenKeyRotates_thenTokensSignedWithThePreviousKeyStillWork() {
+        clock.advance(Duration.ofMinutes(55));
+        String token = tokenService.issue(admin).value();
+
+        clock.advance(Duration.ofMinutes(10));
+
+        assertEquals("admin", tokenService.authenticate(token).getName());
+        AccessTokenService otherSecret = new AccessTokenService(
+                new ObjectMapper(), Duration.ofMinutes(15), Duration.ofHours(1), "other-secret", 1000, clock);
+        assertThrows(BadCredentialsException.class, () -> otherSecret.authenticate(token));
+    }
+
+    @Test
+    void whenUserChanges_thenOlderTokensAreRevokedButNewOnesWork() {
+        String oldToken = tokenService.issue(admin).value();
+
+        clock.advance(Duration.ofSeconds(1));
+        tokenService.onUserChanged(new UserChangedEvent(1L, "admin", "admin", "ADMIN", UserChangedEvent.Type.UPDATED));
+        clock.advance(Duration.ofSeconds(1));
+        String newToken = tokenService.issue(admin).value();
+
+        assertThrows(BadCredentialsException.class, () -> tokenService.authenticate(oldToken));
+        assertEquals("admin", tokenService.authenticate(newToken).getName());
+    }
+
+    @Test
+    void whenChangeIsRelayedLate_thenTokensIssuedBeforeItArrivedAreRevoked() {
+        clock.advance(Duration.ofSeconds(1));
+        Instant changedAt = clock.instant();
+        clock.advance(Duration.ofSeconds(1));
+        // Issued after the change was made on another instance, from this instance's stale caches,
+        // while the change was still on its way here.
+        String tokenBeforeArrival = tokenService.issue(admin).value();
+        clock.advance(Duration.ofSeconds(1));
+
+        tokenService.onUserChanged(UserChangedEvent.remote(1L, "admin", "admin", "USER",
+                UserChangedEvent.Type.UPDATED, changedAt));
+        clock.advance(Duration.ofSeconds(1));
+        String tokenAfterArrival = tokenService.issue(UsernamePasswordAuthenticationToken.authenticated(
+                "admin", null, AuthorityUtils.createAuthorityList("ROLE_USER"))).value();
+
+        assertThrows(BadCredentialsException.class, () -> tokenService.authenticate(tokenBeforeArrival));
+        assertEquals(AuthorityUtils.createAuthorityList("ROLE_USER"),
+                tokenService.authenticate(tokenAfterArrival).getAuthorities());
+    }
+
+    @Test
+    void whenRelayedChangeIsStampedAheadOfThisClock_thenTokensUntilThenAreRevoked() {
+        Instant changedAt = clock.instant().plusSeconds(5);
+        tokenService.onUserChanged(UserChangedEvent.remote(1L, "admin", "admin", "ADMIN",
+                UserChangedEvent.Type.UPDATED, changedAt));
+        clock.advance(Duration.ofSeconds(1));
+
+        String token = tokenService.issue(admin).value();
+
+        assertThrows(BadCredentialsException.class, () -> tokenService.authenticate(token));
+    }
+
+    @Test
+    void whenMoreUsersAreRevokedThanKept_thenDroppedRevocationsStillHold() {
+        AccessTokenService smallService = new AccessTokenService(
+                new ObjectMapper(), Duration.ofMinutes(15), Duration.ofHours(1), "test-secret", 2, clock);
+        List<String> oldTokens = new ArrayList<>();
+        for (String username : List.of("alice", "bob", "carol")) {
+            oldTokens.add(smallService.issue(UsernamePasswordAuthenticationToken.authenticated(
+                    username, null, AuthorityUtils.createAuthorityList("ROLE_USER"))).value());
+        }
+
+        clock.advance(Duration.ofSeconds(1));
+        for (String username : List.of("alice", "bob", "carol")) {
+            smallService.revoke(username);
+        }
+        clock.advance(Duration.ofSeconds(1));
+        String newToken = smallService.issue(admin).value();
+
+        assertTrue(smallService.revokedUsers() <= 2);
+        for (String oldToken : oldTokens) {
+            assertThrows(BadCredentialsException.class, () -> smallService.authenticate(oldToken));
+        }
+        assertEquals("admin", smallService.authenticate(newToken).getName());
+    }
+
+    /**
+     * A Clock that stands still until it is moved.
+     */
+    private static final class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2025-01-01T10:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
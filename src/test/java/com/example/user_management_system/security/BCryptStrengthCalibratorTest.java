@@ -0,0 +1,29 @@
+package com.example.user_management_system.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit tests for the strength estimate of the BCryptStrengthCalibrator.
+ */
+class BCryptStrengthCalibratorTest {
+
+    private static final long MILLIS = 1_000_000;
+
+    @Test
+    void whenMinStrengthIsFast_thenStrengthIsRaisedWhileItFitsTheTarget() {
+        // 60 ms at strength 10 -> 120 ms at 11 -> 240 ms at 12 -> 480 ms at 13.
+        assertEquals(12, BCryptStrengthCalibrator.strengthFor(250 * MILLIS, 60 * MILLIS, 10, 16));
+    }
+
+    @Test
+    void whenMinStrengthIsAlreadySlow_thenMinStrengthIsKept() {
+        assertEquals(10, BCryptStrengthCalibrator.strengthFor(250 * MILLIS, 400 * MILLIS, 10, 16));
+    }
+
+    @Test
+    void whenMachineIsVeryFast_thenMaxStrengthIsNotExceeded() {
+        assertEquals(14, BCryptStrengthCalibrator.strengthFor(250 * MILLIS, 1, 10, 14));
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.user_management_system.security;
+
+import com.example.user_management_system.event.UserChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the CachingAuthenticationProvider.
+ * A mocked PasswordEncoder lets us count how often the expensive password check really runs.
+ */
+class CachingAuthenticationProviderTest {
+
+    private PasswordEncoder passwordEncoder;
+    private CachingAuthenticationProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        passwordEncoder = mock(PasswordEncoder.class);
+        when(passwordEncoder.matches(anyString(), anyString()))
+                .thenAnswer(inv -> ("{hash}" + inv.getArgument(0)).equals(inv.getArgument(1)));
+        when(passwordEncoder.upgradeEncoding(any())).thenReturn(false);
+
+        UserDetailsService userDetailsService = new InMemoryUserDetailsManager(
+                User.withUsername("intern").password("{hash}password123").roles("USER").build());
+        DaoAuthenticationProvider daoProvider = new DaoAuthenticationProvider(userDetailsService);
+        daoProvider.setPasswordEncoder(passwordEncoder);
+        provider = new CachingAuthenticationProvider(daoProvider, Duration.ofMinutes(5), 100);
+    }
+
+    @Test
+    void whenSameCredentialsTwice_thenPasswordIsCheckedOnce() {
+        Authentication first = provider.authenticate(token("intern", "password123"));
+        Authentication second = provider.authenticate(token("intern", "password123"));
+
+        assertTrue(first.isAuthenticated());
+        assertTrue(second.isAuthenticated());
+        assertEquals("intern", second.getName());
+        verify(passwordEncoder, times(1)).matches("password123", "{hash}password123");
+        assertEquals(1, provider.stats().hitCount());
+    }
+
+    @Test
+    void whenWrongPassword_thenFailsEveryTimeAndIsNotCached() {
+        provider.authenticate(token("intern", "password123"));
+
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(token("intern", "wrong")));
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(token("intern", "wrong")));
+        verify(passwordEncoder, times(2)).matches("wrong", "{hash}password123");
+    }
+
+    @Test
+    void whenUserChanges_thenCachedCheckIsEvicted() {
+        provider.authenticate(token("intern", "password123"));
+        provider.onUserChanged(new UserChangedEvent(1L, "intern", "intern", "USER", UserChangedEvent.Type.UPDATED));
+        provider.authenticate(token("intern", "password123"));
+
+        verify(passwordEncoder, times(2)).matches("password123", "{hash}password123");
+        assertEquals(0, provider.stats().hitCount());
+    }
+
+    @Test
+    void whenUserChangesWhileCheckIsRunning_thenItsResultIsNotCached() {
+        DaoAuthenticationProvider daoProvider = new DaoAuthenticationProvider(new InMemoryUserDetailsManager(
+                User.withUsername("intern").password("{hash}password123").roles("USER").build()));
+        daoProvider.setPasswordEncoder(passwordEncoder);
+        AuthenticationProvider delegate = mock(AuthenticationProvider.class);
+        CachingAuthenticationProvider[] racing = new CachingAuthenticationProvider[1];
+        // The user changes after the delegate has loaded the old credentials, but before the result is cached.
+        when(delegate.authenticate(any())).thenAnswer(inv -> {
+            Authentication result = daoProvider.authenticate(inv.getArgument(0));
+            racing[0].invalidate("intern");
+            return result;
+        });
+        racing[0] = new CachingAuthenticationProvider(delegate, Duration.ofMinutes(5), 100);
+
+        racing[0].authenticate(token("intern", "password123"));
+
+        assertEquals(0, racing[0].size());
+    }
+
+    @Test
+    void whenOtherUserChanges_thenCachedCheckIsKept() {
+        provider.authenticate(token("intern", "password123"));
+        provider.invalidate("someone-else");
+        provider.authenticate(token("intern", "password123"));
+
+        verify(passwordEncoder, times(1)).matches("password123", "{hash}password123");
+    }
+
+    private static UsernamePasswordAuthenticationToken token(String username, String password) {
+        return UsernamePasswordAuthenticationToken.unauthenticated(username, password);
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.user_management_system.security;
+
+import com.example.user_management_system.entity.User;
+import com.example.user_management_system.event.UserChangedEvent;
+import com.example.user_management_system.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the DatabaseUserDetailsService, using a mocked UserRepository.
+ */
+class DatabaseUserDetailsServiceTest {
+
+    private UserRepository userRepository;
+    private DatabaseUserDetailsService service;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        InMemoryUserDetailsManager builtInUsers = new InMemoryUserDetailsManager(
+                org.springframework.security.core.userdetails.User.withUsername("admin")
+                        .password("{noop}admin123").roles("ADMIN").build());
+        service = new DatabaseUserDetailsService(userRepository, builtInUsers, Duration.ofMinutes(10), 100);
+    }
+
+    @Test
+    void whenUserIsInDatabase_thenLoadedOnceAndServedFromCache() {
+        when(userRepository.findByUsername("testuser"))
+                .thenReturn(Optional.of(new User(1L, "testuser", "encoded", "USER")));
+
+        service.loadUserByUsername("testuser");
+        UserDetails second = service.loadUserByUsername("testuser");
+
+        assertEquals("encoded", second.getPassword());
+        assertTrue(second.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_USER")));
+        verify(userRepository, times(1)).findByUsername("testuser");
+    }
+
+    @Test
+    void whenCallerErasesCredentials_thenCachedPasswordIsUntouched() {
+        when(userRepository.findByUsername("testuser"))
+                .thenReturn(Optional.of(new User(1L, "testuser", "encoded", "USER")));
+
+        ((org.springframework.security.core.userdetails.User) service.loadUserByUsername("testuser")).eraseCredentials();
+
+        assertEquals("encoded", service.loadUserByUsername("testuser").getPassword());
+    }
+
+    @Test
+    void whenUserChanges_thenNextLookupGoesToDatabase() {
+        when(userRepository.findByUsername("testuser"))
+                .thenReturn(Optional.of(new User(1L, "testuser", "encoded", "USER")));
+        service.loadUserByUsername("testuser");
+
+        service.onUserChanged(new UserChangedEvent(1L, "testuser", "testuser", "USER", UserChangedEvent.Type.UPDATED));
+        service.loadUserByUsername("testuser");
+
+        verify(userRepository, times(2)).findByUsername("testuser");
+    }
+
+    @Test
+    void whenUserIsNotInDatabase_thenBuiltInUsersAreUsed() {
+        when(userRepository.findByUsername("admin")).thenReturn(Optional.empty());
+
+        assertNotNull(service.loadUserByUsername("admin"));
+        assertThrows(UsernameNotFoundException.class, () -> service.loadUserByUsername("nobody"));
+    }
+
+    @Test
+    void whenPasswordIsUpgraded_thenRowIsUpdatedAndCacheEvicted() {
+        when(userRepository.findByUsername("testuser"))
+                .thenReturn(Optional.of(new User(1L, "testuser", "old", "USER")))
+                .thenReturn(Optional.of(new User(1L, "testuser", "{bcrypt}new", "USER")));
+        when(userRepository.updatePassword("testuser", "{bcrypt}new")).thenReturn(1);
+        UserDetails loaded = service.loadUserByUsername("testuser");
+
+        UserDetails upgraded = service.updatePassword(loaded, "{bcrypt}new");
+
+        assertEquals("{bcrypt}new", upgraded.getPassword());
+        assertEquals("{bcrypt}new", service.loadUserByUsername("testuser").getPassword());
+        verify(userRepository).updatePassword("testuser", "{bcrypt}new");
+    }
+
+    @Test
+    void whenBuiltInUserPasswordIsUpgraded_thenFallbackIsUpdated() {
+        when(userRepository.findByUsername("admin")).thenReturn(Optional.empty());
+        when(userRepository.updatePassword("admin", "{noop}changed")).thenReturn(0);
+
+        service.updatePassword(service.loadUserByUsername("admin"), "{noop}changed");
+
+        assertEquals("{noop}changed", service.loadUserByUsername("admin").getPassword());
+    }
+}
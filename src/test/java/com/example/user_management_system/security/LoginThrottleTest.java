@@ -0,0 +1,61 @@
+package com.example.user_management_system.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Unit tests for the LoginThrottle and its sliding-window counters.
+ */
+class LoginThrottleTest {
+
+    private static final Instant START = Instant.parse("2025-01-01T10:00:00Z");
+
+    private static LoginThrottle throttleAt(Instant now) {
+        return new LoginThrottle(Duration.ofMinutes(1), 5, 3, 1024, Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    @Test
+    void whenUsernameFailsTooOften_thenOnlyThatUsernameIsThrottled() {
+        LoginThrottle throttle = throttleAt(START);
+        for (int i = 0; i < 3; i++) {
+            assertNull(throttle.check("10.0.0." + i, "victim"));
+            throttle.recordFailure("10.0.0." + i, "victim");
+        }
+
+        assertEquals(LoginThrottle.Limit.USERNAME, throttle.check("10.0.0.9", "victim"));
+        assertNull(throttle.check("10.0.0.9", "someone-else"));
+    }
+
+    @Test
+    void whenIpFailsTooOften_thenEveryUsernameFromThatIpIsThrottled() {
+        LoginThrottle throttle = throttleAt(START);
+        for (int i = 0; i < 5; i++) {
+            throttle.recordFailure("10.0.0.1", "user" + i);
+        }
+
+        assertEquals(LoginThrottle.Limit.IP, throttle.check("10.0.0.1", "fresh-user"));
+        assertNull(throttle.check("10.0.0.2", "fresh-user"));
+    }
+
+    @Test
+    void whenWindowSlides_thenOldFailuresFadeOut() {
+        SlidingWindowSketch sketch = new SlidingWindowSketch(1024, 60_000);
+        long start = START.toEpochMilli();
+        for (int i = 0; i < 4; i++) {
+            sketch.increment("victim", start);
+        }
+
+        assertEquals(4.0, sketch.estimate("victim", start), 0.001);
+        // Half-way through the next window, half of the previous window still counts.
+        assertEquals(2.0, sketch.estimate("victim", start + 90_000), 0.001);
+        assertEquals(0.0, sketch.estimate("victim", start + 120_000), 0.001);
+        assertEquals(0.0, sketch.estimate("nobody", start), 0.001);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.user_management_system.security;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the TimedSecurityFilter.
+ */
+class TimedSecurityFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    /**
+     * A filter that only passes the request on.
+     */
+    private static final class PassThroughFilter implements Filter {
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+                throws IOException, ServletException {
+            chain.doFilter(request, response);
+        }
+    }
+
+    @Test
+    void whenRestOfChainIsSlow_thenOnlyTheFilterItselfIsTimed() throws Exception {
+        TimedSecurityFilter filter = new TimedSecurityFilter(new PassThroughFilter(), meterRegistry);
+
+        filter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), (request, response) -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        Timer timer = meterRegistry.get("security.filter.duration").tag("filter", "PassThroughFilter").timer();
+        assertEquals(1, timer.count());
+        assertTrue(timer.totalTime(TimeUnit.MILLISECONDS) < 100, "downstream time must not be counted");
+    }
+
+    @Test
+    void whenFilterEndsTheRequest_thenItIsStillTimed() throws Exception {
+        Filter rejecting = (request, response, chain) -> ((MockHttpServletResponse) response).setStatus(401);
+        TimedSecurityFilter filter = new TimedSecurityFilter(rejecting, meterRegistry);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest(), response, (req, res) -> {
+            throw new AssertionError("the chain must not continue");
+        });
+
+        assertEquals(401, response.getStatus());
+        assertEquals(1, meterRegistry.get("security.filter.duration").timer().count());
+    }
+}
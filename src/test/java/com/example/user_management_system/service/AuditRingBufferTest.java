@@ -0,0 +1,101 @@
+package com.example.user_management_system.service;
+
+import com.example.user_management_system.event.AuditEvent;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the AuditRingBuffer.
+ */
+class AuditRingBufferTest {
+
+    private static AuditEvent event(String target) {
+        return new AuditEvent(Instant.now(), AuditEvent.Type.USER_CREATED, "admin", target, null);
+    }
+
+    @Test
+    void whenFull_thenOfferFailsUntilDrained() {
+        AuditRingBuffer buffer = new AuditRingBuffer(3);
+        assertEquals(4, buffer.capacity());
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(event("user" + i)));
+        }
+        assertFalse(buffer.offer(event("user4")));
+        assertEquals(4, buffer.size());
+
+        List<AuditEvent> batch = new ArrayList<>();
+        assertEquals(2, buffer.drainTo(batch, 2));
+        assertEquals("user0", batch.get(0).target());
+        assertEquals("user1", batch.get(1).target());
+        assertTrue(buffer.offer(event("user4")));
+    }
+
+    @Test
+    void whenWrappingAround_thenEventsComeOutInOrder() {
+        AuditRingBuffer buffer = new AuditRingBuffer(4);
+        List<AuditEvent> batch = new ArrayList<>();
+
+        for (int i = 0; i < 10; i++) {
+            buffer.offer(event("user" + i));
+            buffer.offer(event("other" + i));
+            batch.clear();
+            assertEquals(2, buffer.drainTo(batch, 10));
+            assertEquals("user" + i, batch.get(0).target());
+            assertEquals("other" + i, batch.get(1).target());
+        }
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    void whenManyThreadsOffer_thenEveryEventIsDrainedOnce() throws Exception {
+        AuditRingBuffer buffer = new AuditRingBuffer(64);
+        int threads = 4;
+        int perThread = 2_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> producers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                producers.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        AuditEvent event = event(thread + "-" + i);
+                        while (!buffer.offer(event)) {
+                            Thread.yield();
+                        }
+                    }
+                }));
+            }
+
+            Set<String> seen = new HashSet<>();
+            List<AuditEvent> batch = new ArrayList<>();
+            while (seen.size() < threads * perThread) {
+                batch.clear();
+                if (buffer.drainTo(batch, 16) == 0) {
+                    Thread.yield();
+                }
+                for (AuditEvent event : batch) {
+                    assertTrue(seen.add(event.target()), "drained twice: " + event.target());
+                }
+            }
+            for (Future<?> producer : producers) {
+                producer.get();
+            }
+            assertEquals(0, buffer.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.user_management_system.service;
+
+import com.example.user_management_system.event.AuditEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the AuditService and its segment files.
+ */
+class AuditServiceTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @TempDir
+    Path directory;
+
+    private AuditService auditService(DataSize segmentSize, int maxSegments) throws Exception {
+        return new AuditService(objectMapper, meterRegistry,
+                new StaticListableBeanFactory().getBeanProvider(JdbcTemplate.class), true, 1024,
+                AuditService.OverflowPolicy.WAIT, Duration.ofSeconds(1), 64, directory, segmentSize,
+                maxSegments, false);
+    }
+
+    private List<Path> segments() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private List<JsonNode> lines() throws Exception {
+        List<JsonNode> lines = new ArrayList<>();
+        for (Path segment : segments()) {
+            for (String line : Files.readAllLines(segment)) {
+                lines.add(objectMapper.readTree(line));
+            }
+        }
+        return lines;
+    }
+
+    @Test
+    void whenClosed_thenEveryRecordedEventIsInTheSegmentAsJsonLine() throws Exception {
+        AuditService auditService = auditService(DataSize.ofMegabytes(1), 10);
+
+        auditService.record(AuditEvent.Type.USER_CREATED, "admin", "alice", "role=USER");
+        auditService.record(AuditEvent.Type.LOGIN_FAILED, "bob", "/api/users", "127.0.0.1");
+        auditService.close();
+
+        List<JsonNode> lines = lines();
+        assertEquals(2, lines.size());
+        assertEquals("USER_CREATED", lines.get(0).get("type").asText());
+        assertEquals("admin", lines.get(0).get("actor").asText());
+        assertEquals("alice", lines.get(0).get("target").asText());
+        assertEquals("LOGIN_FAILED", lines.get(1).get("type").asText());
+        assertEquals(2.0, meterRegistry.get("audit.events.written").tag("sink", "file").counter().count());
+        assertEquals(0.0, meterRegistry.get("audit.events.dropped").counter().count());
+    }
+
+    @Test
+    void whenSegmentIsFull_thenANewOneIsStartedAndOldOnesAreDeleted() throws Exception {
+        AuditService auditService = auditService(DataSize.ofBytes(512), 2);
+
+        for (int i = 0; i < 50; i++) {
+            auditService.record(AuditEvent.Type.USER_CREATED, "admin", "user" + i, null);
+        }
+        auditService.close();
+
+        assertEquals(2, segments().size());
+        List<JsonNode> lines = lines();
+        assertTrue(lines.size() < 50);
+        assertEquals("user49", lines.get(lines.size() - 1).get("target").asText());
+    }
+
+    @Test
+    void whenWritersShareADirectory_thenEachKeepsAndPrunesOnlyItsOwnSegments() throws Exception {
+        byte[] record = "{\"type\":\"USER_CREATED\"}\n".getBytes(StandardCharsets.UTF_8);
+        try (AuditSegmentWriter first = new AuditSegmentWriter(directory, 64, 2);
+             AuditSegmentWriter second = new AuditSegmentWriter(directory, 64, 2)) {
+            assertNotEquals(first.currentSegment(), second.currentSegment());
+
+            // Each writer fills several segments, far more than either may keep.
+            for (int i = 0; i < 20; i++) {
+                first.append(record);
+                second.append(record);
+            }
+
+            assertEquals(4, segments().size());
+            assertTrue(Files.exists(first.currentSegment()));
+            assertTrue(Files.exists(second.currentSegment()));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.user_management_system.service;
+
+import com.example.user_management_system.exception.HashingCapacityExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the PasswordHashingService, using a pool of one thread and no queue.
+ */
+class PasswordHashingServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PasswordHashingService hashingService = new PasswordHashingService(meterRegistry, 1, 0, 3);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        hashingService.shutdown();
+    }
+
+    @Test
+    void whenPoolHasRoom_thenResultIsReturnedAndTimed() {
+        assertEquals("hashed", hashingService.execute("encode", () -> "hashed"));
+        assertEquals(1, meterRegistry.get("password.hashing.duration").tag("operation", "encode").timer().count());
+    }
+
+    @Test
+    void whenPoolIsSaturated_thenInteractiveCallersFailFast() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<String> busy = CompletableFuture.supplyAsync(() -> hashingService.execute("encode", () -> {
+            started.countDown();
+            await(release);
+            return "slow";
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        HashingCapacityExceededException ex = assertThrows(HashingCapacityExceededException.class,
+                () -> hashingService.execute("matches", () -> true));
+        assertEquals(3, ex.getRetryAfterSeconds());
+        assertEquals(1, meterRegistry.get("password.hashing.rejected").counter().count());
+
+        release.countDown();
+        assertEquals("slow", busy.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void whenPoolIsSaturated_thenBulkCallersWaitForRoom() throws Exception {
+        CompletableFuture<String> first = hashingService.executeBulk("encode", () -> {
+            await(release);
+            return "first";
+        });
+        CompletableFuture<CompletableFuture<String>> second =
+                CompletableFuture.supplyAsync(() -> hashingService.executeBulk("encode", () -> "second"));
+
+        release.countDown();
+        assertEquals("first", first.get(5, TimeUnit.SECONDS));
+        assertEquals("second", second.get(5, TimeUnit.SECONDS).get(5, TimeUnit.SECONDS));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
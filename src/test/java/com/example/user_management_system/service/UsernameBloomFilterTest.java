@@ -0,0 +1,59 @@
+package com.example.user_management_system.service;
+
+import com.example.user_management_system.dto.UserView;
+import com.example.user_management_system.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the UsernameBloomFilter.
+ */
+class UsernameBloomFilterTest {
+
+    @Test
+    void whenNotWarmedUp_thenEveryUsernameMayBeTaken() {
+        UsernameBloomFilter filter = new UsernameBloomFilter(mock(UserRepository.class), true, 1000, 0.01);
+
+        assertTrue(filter.mightContain("anyone"));
+    }
+
+    @Test
+    void whenWarmedUp_thenExistingUsernamesMayBeTakenAndMostOthersAreFree() {
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findViewsAfter(eq(0L), any())).thenReturn(List.of(
+                new UserView(1L, "alice", "USER"),
+                new UserView(2L, "bob", "ADMIN")));
+        when(userRepository.findViewsAfter(eq(2L), any())).thenReturn(List.of());
+        UsernameBloomFilter filter = new UsernameBloomFilter(userRepository, true, 1000, 0.01);
+
+        filter.warmUp();
+        filter.put("carol");
+
+        assertTrue(filter.mightContain("alice"));
+        assertTrue(filter.mightContain("bob"));
+        assertTrue(filter.mightContain("carol"));
+        int falsePositives = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (filter.mightContain("free-user-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 50, "too many false positives: " + falsePositives);
+    }
+
+    @Test
+    void whenDisabled_thenEveryUsernameMayBeTaken() {
+        UsernameBloomFilter filter = new UsernameBloomFilter(mock(UserRepository.class), false, 1000, 0.01);
+
+        filter.warmUp();
+
+        assertTrue(filter.mightContain("anyone"));
+    }
+}
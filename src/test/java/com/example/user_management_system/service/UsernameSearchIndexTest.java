@@ -0,0 +1,88 @@
+package com.example.user_management_system.service;
+
+import com.example.user_management_system.dto.UserView;
+import com.example.user_management_system.event.UserChangedEvent;
+import com.example.user_management_system.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the UsernameSearchIndex.
+ */
+class UsernameSearchIndexTest {
+
+    private static UsernameSearchIndex index(UserView... users) {
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findViewsAfter(eq(0L), any())).thenReturn(List.of(users));
+        when(userRepository.findViewsAfter(eq((long) users.length), any())).thenReturn(List.of());
+        // A high threshold keeps rebuilds out of the background; tests call rebuild() themselves.
+        UsernameSearchIndex index = new UsernameSearchIndex(userRepository, true, 1000);
+        index.warmUp();
+        return index;
+    }
+
+    private static List<String> usernames(List<UserView> users) {
+        return users.stream().map(UserView::username).toList();
+    }
+
+    @Test
+    void whenSearching_thenPrefixMatchesComeBeforeSubstringMatchesIgnoringCase() {
+        UsernameSearchIndex index = index(
+                new UserView(1L, "bob", "USER"),
+                new UserView(2L, "Alice", "ADMIN"),
+                new UserView(3L, "malice", "USER"),
+                new UserView(4L, "ali", "USER"),
+                new UserView(5L, "alicia", "USER"));
+
+        assertTrue(index.isReady());
+        assertEquals(List.of("ali", "Alice", "alicia", "malice"), usernames(index.search("ALI", 0, 10)));
+        assertEquals(List.of("Alice", "malice"), usernames(index.search("lice", 0, 10)));
+        assertEquals(List.of(), index.search("xyz", 0, 10));
+        assertEquals("ADMIN", index.search("alice", 0, 1).get(0).role());
+    }
+
+    @Test
+    void whenQueryIsShort_thenOnlyPrefixesMatch() {
+        UsernameSearchIndex index = index(new UserView(1L, "alice", "USER"), new UserView(2L, "malice", "USER"));
+
+        assertEquals(List.of("alice"), usernames(index.search("al", 0, 10)));
+    }
+
+    @Test
+    void whenPaging_thenPagesFollowTheRanking() {
+        UsernameSearchIndex index = index(
+                new UserView(1L, "user1", "USER"),
+                new UserView(2L, "user2", "USER"),
+                new UserView(3L, "user3", "USER"),
+                new UserView(4L, "superuser", "ADMIN"));
+
+        assertEquals(List.of("user1", "user2"), usernames(index.search("user", 0, 2)));
+        assertEquals(List.of("user3", "superuser"), usernames(index.search("user", 2, 2)));
+        assertEquals(List.of(), index.search("user", 4, 2));
+    }
+
+    @Test
+    void whenUsersChange_thenSearchesSeeTheChangesBeforeAndAfterARebuild() {
+        UsernameSearchIndex index = index(new UserView(1L, "alice", "USER"), new UserView(2L, "bob", "USER"));
+
+        index.onUserChanged(new UserChangedEvent(3L, "alicia", null, "USER", UserChangedEvent.Type.CREATED));
+        index.onUserChanged(new UserChangedEvent(1L, "alison", "alice", "USER", UserChangedEvent.Type.UPDATED));
+        index.onUserChanged(new UserChangedEvent(2L, "bob", "bob", "USER", UserChangedEvent.Type.DELETED));
+        assertEquals(List.of("alicia", "alison"), usernames(index.search("ali", 0, 10)));
+        assertFalse(usernames(index.search("bob", 0, 10)).contains("bob"));
+
+        index.rebuild();
+        index.onUserChanged(new UserChangedEvent(4L, "alex", null, "USER", UserChangedEvent.Type.CREATED));
+        assertEquals(List.of("alex", "alicia", "alison"), usernames(index.search("al", 0, 10)));
+        assertEquals(List.of(), index.search("bob", 0, 10));
+    }
+}